@@ -0,0 +1,34 @@
+package effectivemobile.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks once per thread count with the GC profiler, so every result carries ops/s
+ * and {@code gc.alloc.rate.norm}. Results are written to {@code results-<threads>t.json}.
+ * <pre>
+ * java -jar auth-benchmarks/target/benchmarks.jar [include-regex] [threads,...]
+ * java -jar auth-benchmarks/target/benchmarks.jar JwtService 1,8
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "effectivemobile.benchmark.*";
+        String threads = args.length > 1 ? args[1] : "1,4,16";
+
+        for (String value : threads.split(",")) {
+            int count = Integer.parseInt(value.trim());
+            new Runner(new OptionsBuilder()
+                    .include(include)
+                    .threads(count)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("results-" + count + "t.json")
+                    .build()).run();
+        }
+    }
+}
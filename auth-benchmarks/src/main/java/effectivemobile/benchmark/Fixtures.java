@@ -0,0 +1,108 @@
+package effectivemobile.benchmark;
+
+import effectivemobile.cache.UserCache;
+import effectivemobile.config.JwtProperties;
+import effectivemobile.config.UserCacheProperties;
+import effectivemobile.entity.User;
+import effectivemobile.metrics.AuthMetrics;
+import effectivemobile.repository.UserRepository;
+import effectivemobile.security.JwtKeyRing;
+import effectivemobile.security.JwtService;
+import effectivemobile.security.RevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+final class Fixtures {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+    static final String EMAIL = "benchmark.user@yandex.ru";
+
+    private Fixtures() {
+    }
+
+    static JwtProperties jwtProperties() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpirationMinutes(15);
+        return properties;
+    }
+
+    // HS256 uses the shared secret, RS256/ES256 a freshly generated key pair
+    static JwtProperties jwtProperties(String algorithm) {
+        JwtProperties properties = jwtProperties();
+        if (algorithm.equals("HS256")) {
+            return properties;
+        }
+        try {
+            KeyPairGenerator generator;
+            if (algorithm.equals("RS256")) {
+                generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+            } else {
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            KeyPair keyPair = generator.generateKeyPair();
+            properties.setAlgorithm(algorithm);
+            properties.setPrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+            properties.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+            return properties;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static AuthMetrics metrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    static JwtService jwtService(JwtProperties properties) {
+        JwtKeyRing keyRing = new JwtKeyRing(properties);
+        keyRing.reload();
+        return new JwtService(properties, keyRing, metrics());
+    }
+
+    // Nothing is revoked, so every check is answered by the Bloom filter and the template is never used
+    static RevocationList revocationList(JwtProperties properties) {
+        return new RevocationList(new JdbcTemplate(), properties, new SimpleMeterRegistry());
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + type + "-----";
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(EMAIL);
+        user.setVerified(true);
+        return user;
+    }
+
+    // Only userChanged publishes, which the benchmarks never call, so there is no Kafka template
+    static UserCache userCache(UserRepository repository) {
+        return new UserCache(repository, null, new UserCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    // Answers the lookups the filter makes without a database; stub-only, so no invocations pile up while measuring
+    static UserRepository userRepository(User user) {
+        UserRepository repository = mock(UserRepository.class, withSettings().stubOnly());
+        when(repository.findById(any())).thenReturn(Optional.of(user));
+        when(repository.findByEmail(any())).thenReturn(Optional.of(user));
+        when(repository.existsById(any())).thenReturn(true);
+        return repository;
+    }
+}
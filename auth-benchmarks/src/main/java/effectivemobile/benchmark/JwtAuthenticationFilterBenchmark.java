@@ -0,0 +1,83 @@
+package effectivemobile.benchmark;
+
+import effectivemobile.config.JwtProperties;
+import effectivemobile.entity.User;
+import effectivemobile.repository.UserRepository;
+import effectivemobile.security.JwtAuthenticationFilter;
+import effectivemobile.security.JwtService;
+import effectivemobile.security.UserStatusCache;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// statelessPrincipal=false looks the user up through UserCache, true builds the principal from the claims
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"false", "true"})
+        public boolean statelessPrincipal;
+
+        private JwtAuthenticationFilter filter;
+        private String header;
+
+        @Setup
+        public void setup() {
+            JwtProperties properties = Fixtures.jwtProperties();
+            properties.setStatelessPrincipal(statelessPrincipal);
+
+            JwtService jwtService = Fixtures.jwtService(properties);
+            User user = Fixtures.user();
+            UserRepository repository = Fixtures.userRepository(user);
+
+            filter = new JwtAuthenticationFilter(jwtService, Fixtures.userCache(repository),
+                    new UserStatusCache(repository, properties), properties, Fixtures.metrics(),
+                    Fixtures.revocationList(properties));
+            header = "Bearer " + jwtService.generateToken(user.getId(), user.getEmail(), true, UUID.randomUUID());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+        private Authentication authentication;
+        private final FilterChain chain = (req, res) ->
+                authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        @Setup
+        public void setup(Shared shared) {
+            request.addHeader("Authorization", shared.header);
+        }
+    }
+
+    @Benchmark
+    public Authentication doFilter(Shared shared, Request request) throws Exception {
+        shared.filter.doFilter(request.request, request.response, request.chain);
+        SecurityContextHolder.clearContext();
+        return request.authentication;
+    }
+}
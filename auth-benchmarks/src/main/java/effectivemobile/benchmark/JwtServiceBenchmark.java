@@ -0,0 +1,53 @@
+package effectivemobile.benchmark;
+
+import effectivemobile.entity.User;
+import effectivemobile.security.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "RS256", "ES256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private User user;
+    private UUID sessionId;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = Fixtures.jwtService(Fixtures.jwtProperties(algorithm));
+        user = Fixtures.user();
+        sessionId = UUID.randomUUID();
+        token = jwtService.generateToken(user.getId(), user.getEmail(), true, sessionId);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user.getId(), user.getEmail(), true, sessionId);
+    }
+
+    @Benchmark
+    public UUID extractUserId() {
+        return jwtService.extractUserId(token);
+    }
+}
@@ -0,0 +1,160 @@
+package effectivemobile.benchmark;
+
+import effectivemobile.util.UuidV7;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched inserts into a table shaped like {@code verification_codes} that already holds {@code rows} rows,
+ * keyed by random (v4) or time-ordered (v7) UUIDs. Scores are rows per second; the primary key index size
+ * and WAL written per inserted row are printed when the trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PrimaryKeyInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"v4", "v7"})
+    private String keyType;
+
+    @Param("2000000")
+    private int rows;
+
+    private EmbeddedPostgres postgres;
+    private String startLsn;
+    private long startRows;
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws Exception {
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("shared_buffers", "128MB")
+                .start();
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE codes (
+                        id         UUID PRIMARY KEY,
+                        email      VARCHAR(255) NOT NULL,
+                        code       VARCHAR(16)  NOT NULL,
+                        expires_at TIMESTAMPTZ  NOT NULL,
+                        used       BOOLEAN      NOT NULL,
+                        created_at TIMESTAMPTZ  NOT NULL
+                    )""");
+            connection.commit();
+            for (int inserted = 0; inserted < rows; inserted += BATCH_SIZE) {
+                insertBatch(connection);
+            }
+            connection.setAutoCommit(true);
+            statement.execute("CHECKPOINT");
+            startLsn = queryString(connection, "SELECT pg_current_wal_lsn()::text");
+            startRows = Long.parseLong(queryString(connection, "SELECT count(*) FROM codes"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void report() throws Exception {
+        try (Connection connection = connect()) {
+            long total = Long.parseLong(queryString(connection, "SELECT count(*) FROM codes"));
+            long walBytes = Long.parseLong(queryString(connection,
+                    "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '" + startLsn + "')::bigint"));
+            long indexBytes = Long.parseLong(queryString(connection,
+                    "SELECT pg_relation_size('codes_pkey')"));
+            System.out.printf("%n%s: rows=%d pkey=%.1f MB (%.1f bytes/row) wal=%.1f bytes/inserted row%n",
+                    keyType, total, indexBytes / 1048576.0, (double) indexBytes / total,
+                    (double) walBytes / Math.max(1, total - startRows));
+        } finally {
+            postgres.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        private Connection connection;
+
+        @Setup(Level.Trial)
+        public void open(PrimaryKeyInsertBenchmark benchmark) throws SQLException {
+            connection = benchmark.connect();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insert(Session session) throws SQLException {
+        insertBatch(session.connection);
+    }
+
+    private void insertBatch(Connection connection) throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp expiresAt = Timestamp.from(Instant.now().plusSeconds(300));
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO codes (id, email, code, expires_at, used, created_at) VALUES (?, ?, ?, ?, false, ?)")) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                insert.setObject(1, nextId());
+                insert.setString(2, Fixtures.EMAIL);
+                insert.setString(3, "123456");
+                insert.setTimestamp(4, expiresAt);
+                insert.setTimestamp(5, now);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private UUID nextId() {
+        return "v7".equals(keyType) ? UuidV7.next() : UUID.randomUUID();
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", "postgres");
+        properties.setProperty("reWriteBatchedInserts", "true");
+        Connection connection = DriverManager.getConnection(postgres.getJdbcUrl("postgres", "postgres"), properties);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private static String queryString(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+}
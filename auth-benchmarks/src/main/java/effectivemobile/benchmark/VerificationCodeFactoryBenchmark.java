@@ -0,0 +1,48 @@
+package effectivemobile.benchmark;
+
+import effectivemobile.config.VerificationProperties;
+import effectivemobile.entity.VerificationCode;
+import effectivemobile.util.VerificationCodeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerificationCodeFactoryBenchmark {
+
+    private VerificationCodeFactory factory;
+    private final SecureRandom sharedRandom = new SecureRandom();
+
+    @Setup
+    public void setup() {
+        VerificationProperties properties = new VerificationProperties();
+        properties.setTtlMinutes(5);
+        factory = new VerificationCodeFactory(properties);
+    }
+
+    @Benchmark
+    public VerificationCode create() {
+        return factory.create(Fixtures.EMAIL);
+    }
+
+    // The previous implementation: one SecureRandom shared by every thread and String.format per code
+    @Benchmark
+    public String sharedRandomBaseline() {
+        return String.format("%06d", sharedRandom.nextInt(1_000_000));
+    }
+}
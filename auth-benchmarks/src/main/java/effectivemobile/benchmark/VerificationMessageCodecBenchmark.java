@@ -0,0 +1,59 @@
+package effectivemobile.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.message.VerificationMessageCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Binary codec vs. the Jackson path used by JsonSerializer/JsonDeserializer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerificationMessageCodecBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private VerificationMessage message;
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        message = new VerificationMessage("benchmark.user@yandex.ru", "123456");
+        binary = VerificationMessageCodec.encode(message);
+        json = mapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return VerificationMessageCodec.encode(message);
+    }
+
+    @Benchmark
+    public VerificationMessage binaryDeserialize() {
+        return VerificationMessageCodec.decode(binary);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() throws Exception {
+        return mapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public VerificationMessage jsonDeserialize() throws Exception {
+        return mapper.readValue(json, VerificationMessage.class);
+    }
+}
@@ -0,0 +1,103 @@
+package effectivemobile.loadtest;
+
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.message.VerificationMessageDeserializer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays the notification service: reads codes from the topic and hands them to the generator for verify
+ * calls. Also measures how long a code takes from the register call to the topic.
+ */
+class CodeCollector implements Runnable, AutoCloseable {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final KafkaConsumer<String, VerificationMessage> consumer;
+    private final Thread thread;
+
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<VerificationMessage> delivered = new ConcurrentLinkedQueue<>();
+    private final LongAdder deliveredCount = new LongAdder();
+    private final Recorder deliveryLatency = new Recorder(MAX_LATENCY_NANOS, 3);
+
+    private volatile boolean running = true;
+
+    CodeCollector(String bootstrapServers) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "loadtest-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, VerificationMessageDeserializer.class.getName());
+
+        consumer = new KafkaConsumer<>(props);
+        consumer.subscribe(List.of(LocalEnvironment.TOPIC));
+
+        thread = Thread.ofPlatform().name("code-collector").start(this);
+    }
+
+    void expect(String email, long registeredNanos) {
+        pending.put(email, registeredNanos);
+    }
+
+    VerificationMessage nextCode() {
+        return delivered.poll();
+    }
+
+    long deliveredCount() {
+        return deliveredCount.sum();
+    }
+
+    Histogram deliveryLatency() {
+        return deliveryLatency.getIntervalHistogram();
+    }
+
+    void reset() {
+        deliveryLatency.getIntervalHistogram();
+        deliveredCount.reset();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                for (ConsumerRecord<String, VerificationMessage> record : consumer.poll(Duration.ofMillis(100))) {
+                    VerificationMessage message = record.value();
+                    Long registeredNanos = pending.remove(message.email());
+                    if (registeredNanos != null) {
+                        deliveryLatency.recordValue(Math.min(System.nanoTime() - registeredNanos, MAX_LATENCY_NANOS));
+                    }
+                    deliveredCount.increment();
+                    delivered.add(message);
+                }
+            }
+        } catch (WakeupException e) {
+            // closing
+        } finally {
+            consumer.close();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        consumer.wakeup();
+        thread.join();
+    }
+}
@@ -0,0 +1,221 @@
+package effectivemobile.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.message.VerificationMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop generator: operations start on a fixed schedule derived from the rate, each on its own virtual
+ * thread, whether or not earlier ones have finished. Starts beyond {@code max-in-flight} are dropped and
+ * counted rather than delayed.
+ */
+@Slf4j
+class LoadGenerator {
+
+    private static final int TOKEN_POOL_SIZE = 4096;
+
+    private final LoadTestSettings settings;
+    private final String baseUrl;
+    private final String operatorAuthorization;
+    private final CodeCollector collector;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client;
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final LongAdder dropped = new LongAdder();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final AtomicReferenceArray<String> tokens = new AtomicReferenceArray<>(TOKEN_POOL_SIZE);
+    private final AtomicLong tokenSequence = new AtomicLong();
+
+    LoadGenerator(LoadTestSettings settings, String baseUrl, String operatorAuthorization, CodeCollector collector) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.operatorAuthorization = operatorAuthorization;
+        this.collector = collector;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    Map<Operation, OperationStats> stats() {
+        return stats;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    void run() throws InterruptedException {
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        boolean measuring = false;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + i * interval;
+                if (scheduled >= end) {
+                    break;
+                }
+                if (!measuring && scheduled >= measureFrom) {
+                    resetStats();
+                    measuring = true;
+                    log.info("Warmup finished, measuring for {}", settings.duration());
+                }
+
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Operation operation = settings.pick(ThreadLocalRandom.current().nextInt(settings.totalWeight()));
+                if (!inFlight.tryAcquire()) {
+                    dropped.increment();
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        execute(operation, scheduled);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void resetStats() {
+        stats.values().forEach(OperationStats::reset);
+        dropped.reset();
+        collector.reset();
+    }
+
+    private void execute(Operation operation, long scheduled) {
+        OperationStats operationStats = stats.get(operation);
+        try {
+            boolean executed = switch (operation) {
+                case REGISTER -> register(scheduled);
+                case BULK_REGISTER -> registerBulk(scheduled);
+                case VERIFY -> verify();
+                case ME -> me();
+            };
+            if (executed) {
+                operationStats.recordSuccess(scheduled);
+            } else {
+                operationStats.recordSkipped();
+            }
+        } catch (IOException | UnexpectedStatusException e) {
+            operationStats.recordError();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean register(long scheduled) throws IOException, InterruptedException {
+        String email = nextEmail();
+        collector.expect(email, scheduled);
+        post("/auth/register", Map.of("email", email), null);
+        return true;
+    }
+
+    // The bulk endpoint is reserved for operator clients, so it authenticates with Basic credentials
+    private boolean registerBulk(long scheduled) throws IOException, InterruptedException {
+        List<String> emails = new ArrayList<>(settings.bulkSize());
+        for (int i = 0; i < settings.bulkSize(); i++) {
+            String email = nextEmail();
+            collector.expect(email, scheduled);
+            emails.add(email);
+        }
+        post("/auth/register/bulk", Map.of("emails", emails), operatorAuthorization);
+        return true;
+    }
+
+    private String nextEmail() {
+        return "lt-" + runId + "-" + emailSequence.incrementAndGet() + "@loadtest.dev";
+    }
+
+    private boolean verify() throws IOException, InterruptedException {
+        VerificationMessage message = collector.nextCode();
+        if (message == null) {
+            return false;
+        }
+        String body = post("/auth/verify", Map.of("email", message.email(), "code", message.code()), null);
+        String token = mapper.readTree(body).get("token").asText();
+        tokens.set((int) (tokenSequence.getAndIncrement() % TOKEN_POOL_SIZE), token);
+        return true;
+    }
+
+    private boolean me() throws IOException, InterruptedException {
+        String token = randomToken();
+        if (token == null) {
+            return false;
+        }
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/me"))
+                .header("Authorization", "Bearer " + token)
+                .GET());
+        return true;
+    }
+
+    private String randomToken() {
+        long available = Math.min(tokenSequence.get(), TOKEN_POOL_SIZE);
+        if (available == 0) {
+            return null;
+        }
+        return tokens.get(ThreadLocalRandom.current().nextInt((int) available));
+    }
+
+    private String post(String path, Map<String, ?> body, String authorization) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return send(request);
+    }
+
+    private String send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new UnexpectedStatusException(response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static class UnexpectedStatusException extends RuntimeException {
+
+        UnexpectedStatusException(int status) {
+            super("HTTP " + status, null, false, false);
+        }
+    }
+}
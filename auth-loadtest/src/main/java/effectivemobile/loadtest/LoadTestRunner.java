@@ -0,0 +1,83 @@
+package effectivemobile.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+
+/**
+ * End-to-end register/verify/me load test against a throwaway local stack.
+ * <pre>
+ * java -jar auth-loadtest/target/auth-loadtest.jar rate=300 duration=120 mix=register:1,verify:1,me:8
+ * </pre>
+ * To compare single and bulk registration, run {@code mix=register:1,verify:1} against
+ * {@code mix=bulk_register:1,verify:1 bulk-size=100} and compare the registered emails per second.
+ * Latencies are reported in milliseconds over the measured window only (warmup excluded).
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+
+        try (LocalEnvironment environment = new LocalEnvironment(settings);
+             CodeCollector collector = new CodeCollector(environment.bootstrapServers())) {
+
+            LoadGenerator generator = new LoadGenerator(
+                    settings, environment.getBaseUrl(), environment.getOperatorAuthorization(), collector);
+            generator.run();
+
+            report(System.out, settings, generator.stats(), generator.dropped(), collector);
+        }
+        System.exit(0);
+    }
+
+    private static void report(PrintStream out,
+                               LoadTestSettings settings,
+                               Map<Operation, OperationStats> stats,
+                               long dropped,
+                               CodeCollector collector) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        long registered = 0;
+
+        out.printf("%nrate=%d/s duration=%ds mix=register:%d,bulk_register:%d,verify:%d,me:%d bulk-size=%d dropped=%d%n%n",
+                settings.rate(), settings.duration().toSeconds(), settings.registerWeight(),
+                settings.bulkRegisterWeight(), settings.verifyWeight(), settings.meWeight(), settings.bulkSize(), dropped);
+        out.printf("%-14s %10s %10s %8s %8s %9s %9s %9s %9s%n",
+                "operation", "ok", "ok/s", "errors", "skipped", "p50", "p99", "p999", "max");
+
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats.Snapshot snapshot = entry.getValue().snapshot();
+            Histogram histogram = snapshot.histogram();
+            if (entry.getKey() == Operation.REGISTER) {
+                registered += histogram.getTotalCount();
+            } else if (entry.getKey() == Operation.BULK_REGISTER) {
+                registered += histogram.getTotalCount() * settings.bulkSize();
+            }
+            out.printf("%-14s %10d %10.1f %8d %8d %s%n",
+                    entry.getKey().name().toLowerCase(),
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds,
+                    snapshot.errors(),
+                    snapshot.skipped(),
+                    percentiles(histogram));
+        }
+
+        out.printf("%nemails registered=%d (%.1f/s)%n", registered, registered / seconds);
+
+        Histogram delivery = collector.deliveryLatency();
+        out.printf("codes delivered=%d (%.1f/s), register-to-topic p50/p99/p999/max %s%n",
+                collector.deliveredCount(), collector.deliveredCount() / seconds, percentiles(delivery));
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return String.format("%9.2f %9.2f %9.2f %9.2f",
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,92 @@
+package effectivemobile.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Run parameters, given as {@code key=value} arguments:
+ * <pre>
+ * rate=200 duration=60 warmup=10 mix=register:2,verify:2,me:6 max-in-flight=2000 partitions=4 bulk-size=100
+ * </pre>
+ * {@code rate} is the total number of operations started per second regardless of how fast earlier ones
+ * complete; {@code mix} gives the relative weight of each operation. A {@code bulk_register} operation
+ * registers {@code bulk-size} emails in one request.
+ */
+record LoadTestSettings(
+        int rate,
+        Duration duration,
+        Duration warmup,
+        int registerWeight,
+        int bulkRegisterWeight,
+        int verifyWeight,
+        int meWeight,
+        int maxInFlight,
+        int partitions,
+        int bulkSize
+) {
+
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            values.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+        }
+
+        Map<String, Integer> mix = parseMix(values.getOrDefault("mix", "register:2,verify:2,me:6"));
+
+        LoadTestSettings settings = new LoadTestSettings(
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                mix.getOrDefault("register", 0),
+                mix.getOrDefault("bulk_register", 0),
+                mix.getOrDefault("verify", 0),
+                mix.getOrDefault("me", 0),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+                Integer.parseInt(values.getOrDefault("partitions", "4")),
+                Integer.parseInt(values.getOrDefault("bulk-size", "100"))
+        );
+
+        if (settings.rate() <= 0 || settings.totalWeight() <= 0) {
+            throw new IllegalArgumentException("rate and at least one mix weight must be positive");
+        }
+        if (settings.bulkSize() < 1 || settings.bulkSize() > 1000) {
+            throw new IllegalArgumentException("bulk-size must be between 1 and 1000");
+        }
+        return settings;
+    }
+
+    int totalWeight() {
+        return registerWeight + bulkRegisterWeight + verifyWeight + meWeight;
+    }
+
+    Operation pick(int roll) {
+        if (roll < registerWeight) {
+            return Operation.REGISTER;
+        }
+        if (roll < registerWeight + bulkRegisterWeight) {
+            return Operation.BULK_REGISTER;
+        }
+        if (roll < registerWeight + bulkRegisterWeight + verifyWeight) {
+            return Operation.VERIFY;
+        }
+        return Operation.ME;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new HashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight, got " + entry);
+            }
+            Operation.valueOf(parts[0].trim().toUpperCase());
+            mix.put(parts[0].trim().toLowerCase(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
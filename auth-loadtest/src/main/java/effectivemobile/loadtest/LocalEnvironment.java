@@ -0,0 +1,94 @@
+package effectivemobile.loadtest;
+
+import effectivemobile.AuthServiceApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * auth-service running in this JVM against an embedded PostgreSQL and a single-node KRaft broker, on random
+ * ports. Everything is thrown away on close.
+ */
+@Slf4j
+class LocalEnvironment implements AutoCloseable {
+
+    static final String TOPIC = "verification-codes";
+    private static final String OPERATOR = "loadtest";
+
+    private final EmbeddedPostgres postgres;
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final ConfigurableApplicationContext context;
+
+    @Getter
+    private final String baseUrl;
+
+    // Basic credentials of the operator client that bulk registration requires
+    @Getter
+    private final String operatorAuthorization;
+
+    LocalEnvironment(LoadTestSettings settings) throws IOException {
+        String operatorSecret = UUID.randomUUID().toString();
+        operatorAuthorization = "Basic " + Base64.getEncoder()
+                .encodeToString((OPERATOR + ":" + operatorSecret).getBytes(StandardCharsets.UTF_8));
+
+        postgres = EmbeddedPostgres.start();
+
+        kafka = new EmbeddedKafkaKraftBroker(1, settings.partitions(), TOPIC);
+        kafka.afterPropertiesSet();
+
+        context = new SpringApplicationBuilder(AuthServiceApplication.class)
+                .properties(serviceProperties(operatorSecret))
+                .run();
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        log.info("Auth service started: url={}, kafka={}", baseUrl, kafka.getBrokersAsString());
+    }
+
+    String bootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    private Map<String, Object> serviceProperties(String operatorSecret) {
+        byte[] secret = new byte[48];
+        ThreadLocalRandom.current().nextBytes(secret);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("management.server.port", 0);
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.properties.hibernate.show_sql", false);
+        properties.put("spring.jpa.properties.hibernate.format_sql", false);
+        properties.put("spring.kafka.bootstrap-servers", kafka.getBrokersAsString());
+        properties.put("kafka.topics.verification", TOPIC);
+        properties.put("jwt.secret", Base64.getEncoder().encodeToString(secret));
+        properties.put("jwt.previous-secrets", "");
+        properties.put("service-auth.clients[0].name", OPERATOR);
+        properties.put("service-auth.clients[0].secret", "{noop}" + operatorSecret);
+        properties.put("service-auth.clients[0].roles", "OPERATOR");
+        // the generator is the only bulk caller, its budget should not cap the offered rate
+        properties.put("verification.bulk-rate-limit-emails-per-hour", Integer.MAX_VALUE);
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.effectivemobile.loadtest", "INFO");
+        return properties;
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        kafka.destroy();
+        postgres.close();
+    }
+}
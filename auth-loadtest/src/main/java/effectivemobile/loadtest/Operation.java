@@ -0,0 +1,8 @@
+package effectivemobile.loadtest;
+
+enum Operation {
+    REGISTER,
+    BULK_REGISTER,
+    VERIFY,
+    ME
+}
@@ -0,0 +1,46 @@
+package effectivemobile.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one operation, measured from the scheduled start so that queueing behind a slow service
+ * shows up in the percentiles instead of being hidden by a stalled generator.
+ */
+class OperationStats {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    void recordSuccess(long scheduledNanos) {
+        recorder.recordValue(Math.min(System.nanoTime() - scheduledNanos, MAX_LATENCY_NANOS));
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    // Nothing to do for the operation yet, e.g. verify before any code has been delivered
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    void reset() {
+        recorder.getIntervalHistogram();
+        errors.reset();
+        skipped.reset();
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(recorder.getIntervalHistogram(), errors.sum(), skipped.sum());
+    }
+
+    record Snapshot(Histogram histogram, long errors, long skipped) {
+    }
+}
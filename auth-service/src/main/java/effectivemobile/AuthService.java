@@ -1,22 +1,45 @@
 package effectivemobile;
 
+import effectivemobile.cache.UserCache;
+import effectivemobile.dto.BulkRegisterResult;
+import effectivemobile.dto.RegisterRequest;
 import effectivemobile.entity.User;
 import effectivemobile.entity.VerificationCode;
 import effectivemobile.exception.ExpiredVerificationCodeException;
+import effectivemobile.exception.InvalidTokenException;
 import effectivemobile.exception.InvalidVerificationCodeException;
 import effectivemobile.exception.UserNotFoundException;
-import effectivemobile.kafka.KafkaProducerService;
+import effectivemobile.logging.RequestLogSampler;
+import effectivemobile.metrics.AuthMetrics;
+import effectivemobile.outbox.OutboxService;
+import effectivemobile.repository.CodeRedemption;
 import effectivemobile.repository.UserRepository;
 import effectivemobile.repository.VerificationCodeRepository;
 import effectivemobile.security.JwtService;
+import effectivemobile.security.RevocationList;
+import effectivemobile.security.TokenPair;
+import effectivemobile.security.UserStatusCache;
 import effectivemobile.util.VerificationCodeFactory;
 import effectivemobile.util.VerificationRateLimiter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -29,60 +52,202 @@ public class AuthService {
     private final VerificationCodeFactory verificationCodeFactory;
     private final VerificationRateLimiter rateLimiter;
     private final JwtService jwtService;
-    private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
+    private final AuthMetrics metrics;
+    private final RequestLogSampler logSampler;
+    private final RevocationList revocationList;
+    private final UserStatusCache userStatusCache;
+    private final UserCache userCache;
+    private final Validator validator;
 
     public User register(String email) {
-        rateLimiter.checkRateLimit(email);
+        metrics.timeRateLimit(() -> rateLimiter.checkRateLimit(email));
 
-        log.info("Starting registration for email={}", email);
-
-        User user = userRepository.findByEmail(email)
-                .orElseGet(() -> {
-                    log.info("User not found, creating new user for email={}", email);
-                    User newUser = new User();
-                    newUser.setEmail(email);
-                    newUser.setVerified(false);
-                    return userRepository.save(newUser);
-                });
+        Optional<User> existing = metrics.timeUserLookup(() -> userCache.findByEmail(email));
+        User user = existing.orElseGet(() -> {
+            User newUser = new User();
+            newUser.setEmail(email);
+            newUser.setVerified(false);
+            return metrics.timeUserInsert(() -> userRepository.save(newUser));
+        });
 
         VerificationCode verificationCode = verificationCodeFactory.create(email);
-        verificationCodeRepository.save(verificationCode);
-        log.info("Verification code generated and saved for email={}", email);
+        metrics.timeCodeInsert(() -> verificationCodeRepository.save(verificationCode));
+
+        metrics.timeOutboxEnqueue(() -> outboxService.enqueueVerificationCode(email, verificationCode.getCode()));
 
-        kafkaProducerService.sendVerificationCode(email, verificationCode.getCode());
+        if (logSampler.sample()) {
+            log.atInfo()
+                    .addKeyValue("event", "register")
+                    .addKeyValue("email", RequestLogSampler.maskEmail(email))
+                    .addKeyValue("newUser", existing.isEmpty())
+                    .addKeyValue("sampleRate", logSampler.rate())
+                    .log("Verification code issued");
+        }
 
         return user;
     }
 
-    public String verify(String email, String code) {
-        log.info("Verifying code for email={}", email);
+    /**
+     * Registers many emails in one transaction: one {@code IN} lookup for existing users, batched inserts for new
+     * users, codes and outbox rows, and a single relay burst after commit. Emails that fail validation, repeat
+     * within the request or are rate limited are reported and skipped. Users are inserted with
+     * {@code ON CONFLICT DO NOTHING}, so an email registered concurrently is reported as existing rather than
+     * failing the batch. Each email also counts against the caller's own bulk budget.
+     */
+    public List<BulkRegisterResult> registerBulk(String caller, List<String> emails) {
+        rateLimiter.checkBulkRateLimit(caller, emails.size());
+
+        Map<String, BulkRegisterResult> rejected = new LinkedHashMap<>();
+        List<String> accepted = new ArrayList<>(emails.size());
+        Set<String> seen = new HashSet<>();
+
+        // repeats of an email are skipped here and reported as DUPLICATE when the results are assembled
+        for (String email : emails) {
+            if (!validator.validateValue(RegisterRequest.class, "email", email).isEmpty()) {
+                rejected.putIfAbsent(email, new BulkRegisterResult(email, BulkRegisterResult.Status.INVALID_EMAIL, null, null));
+            } else if (seen.add(email)) {
+                accepted.add(email);
+            }
+        }
+
+        // one round trip to the rate limit store for the whole request
+        rateLimiter.checkRateLimits(accepted).forEach((email, message) ->
+                rejected.put(email, new BulkRegisterResult(email, BulkRegisterResult.Status.RATE_LIMITED, null, message)));
+        accepted.removeIf(rejected::containsKey);
+
+        Map<String, UUID> existing = findUserIds(accepted);
+        List<String> missing = accepted.stream().filter(email -> !existing.containsKey(email)).toList();
+        Map<String, UUID> created = userRepository.insertIfAbsent(missing, Instant.now());
+        if (created.size() < missing.size()) {
+            // registered by someone else between the lookup and the insert
+            existing.putAll(findUserIds(missing.stream().filter(email -> !created.containsKey(email)).toList()));
+        }
+
+        List<VerificationCode> codes = new ArrayList<>(accepted.size());
+        Map<String, String> codesByEmail = new LinkedHashMap<>();
+        for (String email : accepted) {
+            VerificationCode code = verificationCodeFactory.create(email);
+            codes.add(code);
+            codesByEmail.put(email, code.getCode());
+        }
+
+        if (!codes.isEmpty()) {
+            verificationCodeRepository.saveAll(codes);
+            outboxService.enqueueVerificationCodes(codesByEmail);
+        }
+
+        List<BulkRegisterResult> results = new ArrayList<>(emails.size());
+        Set<String> reported = new HashSet<>();
+        for (String email : emails) {
+            if (!reported.add(email)) {
+                results.add(new BulkRegisterResult(email, BulkRegisterResult.Status.DUPLICATE, null, null));
+            } else if (rejected.containsKey(email)) {
+                results.add(rejected.get(email));
+            } else if (existing.containsKey(email)) {
+                results.add(new BulkRegisterResult(email, BulkRegisterResult.Status.EXISTING, existing.get(email), null));
+            } else {
+                results.add(new BulkRegisterResult(email, BulkRegisterResult.Status.CREATED, created.get(email), null));
+            }
+        }
+
+        if (logSampler.sample()) {
+            log.atInfo()
+                    .addKeyValue("event", "register_bulk")
+                    .addKeyValue("requested", emails.size())
+                    .addKeyValue("accepted", accepted.size())
+                    .addKeyValue("created", created.size())
+                    .addKeyValue("sampleRate", logSampler.rate())
+                    .log("Bulk registration processed");
+        }
+
+        return results;
+    }
+
+    private Map<String, UUID> findUserIds(List<String> emails) {
+        if (emails.isEmpty()) {
+            return new HashMap<>();
+        }
+        return userRepository.findAllByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, User::getId, (a, b) -> a, HashMap::new));
+    }
 
-        VerificationCode verificationCode = verificationCodeRepository.findByEmailAndCodeAndUsedFalse(email, code)
-                .orElseThrow(() -> {
-                    log.warn("Invalid verification attempt for email={}, code={}", email, code);
-                    return new InvalidVerificationCodeException("Invalid code");
-                });
+    public TokenPair verify(String email, String code) {
+        CodeRedemption redemption = metrics.timeRedeem(() -> verificationCodeRepository.redeem(email, code, Instant.now()));
+
+        switch (redemption.status()) {
+            case INVALID -> {
+                logRejected("invalid_code", email, code);
+                throw new InvalidVerificationCodeException("Invalid code");
+            }
+            case EXPIRED -> {
+                logRejected("expired_code", email, code);
+                throw new ExpiredVerificationCodeException("Code expired");
+            }
+            case USER_NOT_FOUND -> {
+                log.error("User not found during verification for email={}", RequestLogSampler.maskEmail(email));
+                throw new UserNotFoundException("User not found");
+            }
+            case REDEEMED -> userCache.userChanged(redemption.userId(), redemption.email());
+        }
 
-        if (verificationCode.getExpiresAt().isBefore(Instant.now())) {
-            log.warn("Expired code for email={}, code={}", email, code);
-            throw new ExpiredVerificationCodeException("Code expired");
+        TokenPair tokens = metrics.timeTokenIssue(() -> jwtService.issueTokens(redemption.userId(), redemption.email(), true));
+        if (logSampler.sample()) {
+            log.atInfo()
+                    .addKeyValue("event", "verify")
+                    .addKeyValue("email", RequestLogSampler.maskEmail(email))
+                    .addKeyValue("sampleRate", logSampler.rate())
+                    .log("User verified, token issued");
         }
 
-        verificationCode.setUsed(true);
-        verificationCodeRepository.save(verificationCode);
+        return tokens;
+    }
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    log.error("User not found during verification for email={}", email);
-                    return new UserNotFoundException("User not found");
-                });
+    // The refresh token is returned unchanged and stays valid until it expires or its session is revoked.
+    // Not read-only on purpose: a lagging replica may not have seen the logout or ban yet, so this stays on the primary
+    public TokenPair refresh(String refreshToken) {
+        Claims claims = parseRefreshToken(refreshToken);
+        UUID sessionId = JwtService.sessionId(claims);
+        UUID userId = UUID.fromString(claims.getSubject());
 
-        user.setVerified(true);
-        userRepository.save(user);
+        if (revocationList.isRevoked(sessionId) || !userStatusCache.isActive(userId)) {
+            throw new InvalidTokenException("Refresh token revoked");
+        }
 
-        String token = jwtService.generateToken(user.getId(), user.getEmail());
-        log.info("User email={} successfully verified, token issued", email);
+        String accessToken = jwtService.generateToken(userId,
+                claims.get(JwtService.EMAIL_CLAIM, String.class),
+                Boolean.TRUE.equals(claims.get(JwtService.VERIFIED_CLAIM, Boolean.class)),
+                sessionId);
+        return new TokenPair(accessToken, refreshToken);
+    }
 
-        return token;
+    public void logout(String refreshToken) {
+        Claims claims = parseRefreshToken(refreshToken);
+        revocationList.revoke(JwtService.sessionId(claims), claims.getExpiration().toInstant());
+    }
+
+    private Claims parseRefreshToken(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (!JwtService.isRefreshToken(claims) || JwtService.sessionId(claims) == null) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        return claims;
+    }
+
+    private void logRejected(String reason, String email, String code) {
+        if (logSampler.sample()) {
+            log.atWarn()
+                    .addKeyValue("event", "verify_rejected")
+                    .addKeyValue("reason", reason)
+                    .addKeyValue("email", RequestLogSampler.maskEmail(email))
+                    .addKeyValue("code", RequestLogSampler.maskCode(code))
+                    .addKeyValue("sampleRate", logSampler.rate())
+                    .log("Verification rejected");
+        }
     }
 }
@@ -0,0 +1,178 @@
+package effectivemobile.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import effectivemobile.config.UserCacheProperties;
+import effectivemobile.entity.User;
+import effectivemobile.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size- and TTL-bounded cache of user rows by email and by id. Lookups return a fresh detached {@link User}
+ * built from an immutable snapshot, so callers never share an instance.
+ * <p>
+ * A write that changes a cached user calls {@link #userChanged}: after commit the entries are dropped here
+ * and an invalidation is published for the other replicas (key: user id, value: email). Misses are not
+ * cached, so inserting a new user needs no invalidation. A lost invalidation, or a miss that reloads the
+ * row just before a concurrent write evicts it, leaves an entry stale for at most {@code ttl-seconds}.
+ * <p>
+ * Invalidations are handed to a single publisher thread with a bounded queue, so a slow or unreachable
+ * broker ({@code max.block.ms}) never holds up or fails the request that committed the write. Failed and
+ * dropped publishes are counted in {@code user.cache.invalidation.failed}.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private final UserRepository repository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final boolean enabled;
+    private final String topic;
+    private final Cache<String, CachedUser> byEmail;
+    private final Cache<UUID, CachedUser> byId;
+    private final ThreadPoolExecutor publisher;
+    private final Counter publishFailures;
+
+    public UserCache(UserRepository repository,
+                     @Qualifier("userInvalidationTemplate") KafkaTemplate<String, String> kafkaTemplate,
+                     UserCacheProperties properties,
+                     MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.enabled = properties.isEnabled();
+        this.topic = properties.getInvalidationTopic();
+        this.byEmail = build(properties);
+        this.byId = build(properties);
+
+        this.publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getInvalidationQueueCapacity()),
+                Thread.ofPlatform().name("user-invalidation-publisher").daemon().factory());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users_by_email");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users_by_id");
+        this.publishFailures = Counter.builder("user.cache.invalidation.failed")
+                .description("User invalidations that could not be published to the other replicas")
+                .register(meterRegistry);
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (!enabled) {
+            return repository.findByEmail(email);
+        }
+        CachedUser cached = byEmail.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached.toUser());
+        }
+        return repository.findByEmail(email).map(this::store);
+    }
+
+    public Optional<User> findById(UUID id) {
+        if (!enabled) {
+            return repository.findById(id);
+        }
+        CachedUser cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached.toUser());
+        }
+        return repository.findById(id).map(this::store);
+    }
+
+    public void userChanged(UUID id, String email) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndPublish(id, email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAndPublish(id, email);
+            }
+        });
+    }
+
+    void evict(UUID id, String email) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    private void evictAndPublish(UUID id, String email) {
+        evict(id, email);
+        try {
+            publisher.execute(() -> publish(id, email));
+        } catch (RejectedExecutionException e) {
+            publishFailures.increment();
+            log.warn("Dropped user invalidation for userId={}, publish queue is full", id);
+        }
+    }
+
+    private void publish(UUID id, String email) {
+        try {
+            kafkaTemplate.send(topic, id.toString(), email).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    publishFailures.increment();
+                    log.warn("Failed to publish user invalidation for userId={}", id, ex);
+                }
+            });
+        } catch (RuntimeException e) {
+            publishFailures.increment();
+            log.warn("Failed to publish user invalidation for userId={}", id, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdown();
+    }
+
+    private User store(User user) {
+        CachedUser cached = CachedUser.of(user);
+        byEmail.put(cached.email(), cached);
+        byId.put(cached.id(), cached);
+        return user;
+    }
+
+    private static <K> Cache<K, CachedUser> build(UserCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+                .recordStats()
+                .build();
+    }
+
+    private record CachedUser(UUID id, String email, boolean verified, Instant createdAt, Instant updatedAt) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getId(), user.getEmail(), user.isVerified(), user.getCreatedAt(),
+                    user.getUpdatedAt());
+        }
+
+        User toUser() {
+            return new User(id, email, verified, createdAt, updatedAt);
+        }
+    }
+}
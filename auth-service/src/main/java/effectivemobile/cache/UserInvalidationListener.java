@@ -0,0 +1,41 @@
+package effectivemobile.cache;
+
+import effectivemobile.config.UserCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies invalidations published by any replica, including this one. Every replica joins its own consumer
+ * group so each one sees every message; the groups never commit anything worth keeping and expire on the
+ * broker once the replica is gone. {@code user.cache.invalidation.lag} is the time from publish to eviction,
+ * i.e. how long another replica could have served the stale entry.
+ */
+@Component
+public class UserInvalidationListener {
+
+    private final UserCache userCache;
+    private final Timer lag;
+
+    public UserInvalidationListener(UserCache userCache, MeterRegistry meterRegistry) {
+        this.userCache = userCache;
+        this.lag = Timer.builder("user.cache.invalidation.lag")
+                .description("Time from publishing a user invalidation to applying it on this replica")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "${user-cache.invalidation-topic}",
+            groupId = "auth-service-user-cache-#{T(java.util.UUID).randomUUID()}",
+            autoStartup = "${user-cache.enabled}",
+            properties = "auto.offset.reset=latest")
+    public void onInvalidation(ConsumerRecord<String, String> record) {
+        userCache.evict(UUID.fromString(record.key()), record.value());
+        lag.record(Math.max(0, System.currentTimeMillis() - record.timestamp()), TimeUnit.MILLISECONDS);
+    }
+}
@@ -5,12 +5,55 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @ConfigurationProperties(prefix = "jwt")
 @Getter
 @Setter
 public class JwtProperties {
 
+    private String algorithm = "HS256";
     private String secret;
+    private List<String> previousSecrets = new ArrayList<>();
+    private String privateKey;
+    private String publicKey;
+    private List<String> previousPublicKeys = new ArrayList<>();
+    private String keyDirectory;
+    private int jwksMaxAgeSeconds = 300;
     private int expirationMinutes;
+    private int refreshExpirationDays = 30;
+    private long keyRefreshIntervalMs = 30_000;
+    private boolean statelessPrincipal = true;
+    private RevocationCheck revocationCheck = new RevocationCheck();
+    private RevocationList revocationList = new RevocationList();
+    private Introspection introspection = new Introspection();
+
+    @Getter
+    @Setter
+    public static class RevocationCheck {
+
+        private boolean enabled = true;
+        private int ttlSeconds = 30;
+        private long maxSize = 100_000;
+    }
+
+    @Getter
+    @Setter
+    public static class RevocationList {
+
+        private long rebuildIntervalMs = 60_000;
+        private int expectedEntries = 100_000;
+        private double falsePositiveRate = 0.001;
+    }
+
+    @Getter
+    @Setter
+    public static class Introspection {
+
+        private long cacheMaxSize = 100_000;
+        private int maxTtlSeconds = 30;
+        private int negativeTtlSeconds = 5;
+    }
 }
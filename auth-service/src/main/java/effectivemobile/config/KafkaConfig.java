@@ -1,32 +1,71 @@
 package effectivemobile.config;
 
-import effectivemobile.dto.VerificationMessage;
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.message.VerificationMessageSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConfig {
 
+    private final KafkaProperties kafkaProperties;
+    private final KafkaProducerProperties producerProperties;
+    private final SslBundles sslBundles;
+    private final MeterRegistry meterRegistry;
+    private final UserCacheProperties userCacheProperties;
+
     @Bean
     public ProducerFactory<String, VerificationMessage> producerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
+        Map<String, Object> config = new HashMap<>(kafkaProperties.buildProducerProperties(sslBundles));
+        config.putAll(producerProperties.toClientProperties());
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(config);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VerificationMessageSerializer.class);
+
+        DefaultKafkaProducerFactory<String, VerificationMessage> factory = new DefaultKafkaProducerFactory<>(config);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
     public KafkaTemplate<String, VerificationMessage> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    // User cache invalidations: user id as key, email as value
+    @Bean
+    public ProducerFactory<String, String> userInvalidationProducerFactory() {
+        Map<String, Object> config = new HashMap<>(kafkaProperties.buildProducerProperties(sslBundles));
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> userInvalidationTemplate() {
+        return new KafkaTemplate<>(userInvalidationProducerFactory());
+    }
+
+    @Bean
+    public NewTopic userInvalidationTopic() {
+        return TopicBuilder.name(userCacheProperties.getInvalidationTopic())
+                .partitions(userCacheProperties.getInvalidationPartitions())
+                .replicas(userCacheProperties.getInvalidationReplicas())
+                .build();
+    }
 }
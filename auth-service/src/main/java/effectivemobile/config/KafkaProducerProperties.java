@@ -0,0 +1,49 @@
+package effectivemobile.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "kafka.producer")
+@Getter
+@Setter
+public class KafkaProducerProperties {
+
+    private Profile profile = Profile.LATENCY;
+    private Integer lingerMs;
+    private Integer batchSize;
+    private String compressionType;
+    private Boolean enableIdempotence;
+    private Integer maxInFlightRequestsPerConnection;
+    private String acks;
+
+    public Map<String, Object> toClientProperties() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs != null ? lingerMs : profile.getLingerMs());
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize != null ? batchSize : profile.getBatchSize());
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType != null ? compressionType : profile.getCompressionType());
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, enableIdempotence != null ? enableIdempotence : true);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION,
+                maxInFlightRequestsPerConnection != null ? maxInFlightRequestsPerConnection : 5);
+        config.put(ProducerConfig.ACKS_CONFIG, acks != null ? acks : "all");
+        return config;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Profile {
+        LATENCY(0, 16_384, "none"),
+        THROUGHPUT(20, 131_072, "lz4");
+
+        private final int lingerMs;
+        private final int batchSize;
+        private final String compressionType;
+    }
+}
@@ -0,0 +1,22 @@
+package effectivemobile.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "outbox")
+@Getter
+@Setter
+public class OutboxProperties {
+
+    private boolean enabled = true;
+    private int batchSize = 500;
+    private long pollIntervalMs = 200;
+    private int parallelism = 2;
+    private long sendTimeoutMs = 10_000;
+    private long claimTimeoutMs = 60_000;
+    private boolean dispatchOnCommit = true;
+    private int dispatchQueueCapacity = 64;
+}
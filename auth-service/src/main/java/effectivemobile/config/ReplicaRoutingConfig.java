@@ -0,0 +1,82 @@
+package effectivemobile.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import effectivemobile.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source when {@code replica-routing.enabled} is set. The primary pool is
+ * still configured through {@code spring.datasource} and {@code spring.datasource.hikari}; each replica gets
+ * its own read-only pool sized under {@code replica-routing.replicas}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica-routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 DataSourceProperties dataSourceProperties,
+                                                                 ReplicaRoutingProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(replicaPool("replica-" + i, properties.getReplicas().get(i), dataSourceProperties,
+                    meterRegistry));
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties.getMaxLagMs(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    private static HikariDataSource replicaPool(String name,
+                                                ReplicaRoutingProperties.Replica replica,
+                                                DataSourceProperties dataSourceProperties,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(replica.getUrl());
+        if (StringUtils.hasText(replica.getUsername())) {
+            pool.setUsername(replica.getUsername());
+            pool.setPassword(replica.getPassword());
+        } else {
+            pool.setUsername(dataSourceProperties.determineUsername());
+            pool.setPassword(dataSourceProperties.determinePassword());
+        }
+        pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        pool.setReadOnly(true);
+        pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+        pool.setMinimumIdle(replica.getMinimumIdle());
+        pool.setConnectionTimeout(replica.getConnectionTimeoutMs());
+        // Fail on first use rather than at startup, so an unreachable replica only drops out of rotation
+        pool.setInitializationFailTimeout(-1);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
@@ -0,0 +1,33 @@
+package effectivemobile.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "replica-routing")
+@Getter
+@Setter
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+    private long maxLagMs = 5_000;
+    private long lagCheckIntervalMs = 2_000;
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        // spring.datasource credentials are used when no username is given
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 2;
+        private long connectionTimeoutMs = 1_000;
+    }
+}
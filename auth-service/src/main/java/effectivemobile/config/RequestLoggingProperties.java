@@ -0,0 +1,15 @@
+package effectivemobile.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "request-logging")
+@Getter
+@Setter
+public class RequestLoggingProperties {
+
+    private double sampleRate = 1.0;
+}
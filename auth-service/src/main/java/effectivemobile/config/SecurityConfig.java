@@ -4,18 +4,35 @@ import effectivemobile.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.List;
+
+/**
+ * End users authenticate with access tokens; service callers (introspection, bulk registration) authenticate
+ * with HTTP Basic against the clients configured under {@code service-auth}.
+ */
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    public static final String SERVICE_ROLE = "SERVICE";
+    public static final String OPERATOR_ROLE = "OPERATOR";
+
     private final JwtAuthenticationFilter jwtFilter;
 
     @Bean
@@ -23,10 +40,32 @@ public class SecurityConfig {
         httpSecurity.csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/register", "/auth/verify").permitAll()
+                        .requestMatchers("/auth/introspect").hasRole(SERVICE_ROLE)
+                        .requestMatchers("/auth/register/bulk").hasRole(OPERATOR_ROLE)
+                        .requestMatchers("/auth/register", "/auth/verify", "/auth/refresh", "/auth/logout").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/actuator/**").permitAll()
                         .anyRequest().authenticated()
                 )
+                // Plain 401 without a Basic challenge, so browsers never prompt for credentials
+                .httpBasic(basic -> basic.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
         return httpSecurity.build();
     }
+
+    @Bean
+    public UserDetailsService serviceClients(ServiceAuthProperties properties, PasswordEncoder passwordEncoder) {
+        List<UserDetails> clients = properties.getClients().stream()
+                .map(client -> User.withUsername(client.getName())
+                        .password(client.getSecret())
+                        .roles(client.getRoles().toArray(String[]::new))
+                        .build())
+                .toList();
+        return new InMemoryUserDetailsManager(clients);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    }
 }
@@ -0,0 +1,27 @@
+package effectivemobile.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "service-auth")
+@Getter
+@Setter
+public class ServiceAuthProperties {
+
+    private List<Client> clients = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Client {
+        private String name;
+        // Encoded with a {id} prefix, e.g. {bcrypt}$2a$10$...
+        private String secret;
+        private List<String> roles = new ArrayList<>();
+    }
+}
@@ -0,0 +1,21 @@
+package effectivemobile.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "user-cache")
+@Getter
+@Setter
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+    private long maxSize = 100_000;
+    private long ttlSeconds = 60;
+    private String invalidationTopic = "user-invalidations";
+    private int invalidationPartitions = 1;
+    private short invalidationReplicas = 1;
+    private int invalidationQueueCapacity = 10_000;
+}
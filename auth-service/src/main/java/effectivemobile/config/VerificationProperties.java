@@ -12,5 +12,29 @@ import org.springframework.stereotype.Component;
 public class VerificationProperties {
 
     private int ttlMinutes;
+    private int codeLength = 6;
+    private String codeAlphabet = "0123456789";
     private int rateLimitSeconds;
+    private int rateLimitBurst = 1;
+    private long rateLimitMaxKeys = 100_000;
+    private String rateLimitStore = "memory";
+    private long rateLimitPurgeIntervalMs = 60_000;
+    private int bulkRateLimitEmailsPerHour = 5_000;
+    private int bulkRateLimitBurst = 1_000;
+    private Maintenance maintenance = new Maintenance();
+
+    @Getter
+    @Setter
+    public static class Maintenance {
+
+        private boolean enabled = true;
+        private String cron = "0 */10 * * * *";
+        private int premakeDays = 3;
+        private int retentionDays = 1;
+        private long ddlLockTimeoutMs = 2_000;
+        private int purgeGraceMinutes = 60;
+        private int purgeBatchSize = 5_000;
+        private long purgePauseMs = 200;
+        private int purgeMaxBatches = 200;
+    }
 }
@@ -1,12 +1,16 @@
 package effectivemobile.controller;
 
+import effectivemobile.dto.BulkRegisterRequest;
+import effectivemobile.dto.BulkRegisterResponse;
 import effectivemobile.dto.JwtResponse;
+import effectivemobile.dto.RefreshRequest;
 import effectivemobile.dto.RegisterRequest;
 import effectivemobile.dto.UserDto;
 import effectivemobile.dto.VerifyRequest;
 import effectivemobile.dto.mapper.UserMapper;
 import effectivemobile.entity.User;
 import effectivemobile.AuthService;
+import effectivemobile.security.TokenPair;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -28,10 +32,29 @@ public class AuthController {
         return ResponseEntity.ok(mapper.toDto(user));
     }
 
+    @PostMapping("/register/bulk")
+    public ResponseEntity<BulkRegisterResponse> registerBulk(@Valid @RequestBody BulkRegisterRequest request,
+                                                             Authentication authentication) {
+        return ResponseEntity.ok(new BulkRegisterResponse(
+                authService.registerBulk(authentication.getName(), request.emails())));
+    }
+
     @PostMapping("/verify")
     public ResponseEntity<JwtResponse> verify(@Valid @RequestBody VerifyRequest request) {
-        String token = authService.verify(request.email(), request.code());
-        return ResponseEntity.ok(new JwtResponse(token));
+        TokenPair tokens = authService.verify(request.email(), request.code());
+        return ResponseEntity.ok(new JwtResponse(tokens.accessToken(), tokens.refreshToken()));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        TokenPair tokens = authService.refresh(request.refreshToken());
+        return ResponseEntity.ok(new JwtResponse(tokens.accessToken(), tokens.refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshRequest request) {
+        authService.logout(request.refreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/me")
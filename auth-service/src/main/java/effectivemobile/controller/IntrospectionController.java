@@ -0,0 +1,25 @@
+package effectivemobile.controller;
+
+import effectivemobile.dto.IntrospectRequest;
+import effectivemobile.dto.IntrospectResponse;
+import effectivemobile.security.TokenIntrospector;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+public class IntrospectionController {
+
+    private final TokenIntrospector introspector;
+
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectResponse> introspect(@Valid @RequestBody IntrospectRequest request) {
+        return ResponseEntity.ok(new IntrospectResponse(introspector.introspect(request.tokens())));
+    }
+}
@@ -0,0 +1,61 @@
+package effectivemobile.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.config.JwtProperties;
+import effectivemobile.security.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public signing keys for local token verification by other services. The body is serialized once per key
+ * change and served as bytes with an ETag, so repeated fetches cost neither serialization nor, for clients
+ * that send If-None-Match, a body.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
+    private final JwtKeyRing keyRing;
+    private final JwtProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private volatile Document document;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<byte[]> jwks() throws JsonProcessingException {
+        Document current = current();
+
+        // Spring answers a matching If-None-Match with 304 and no body
+        return ResponseEntity.ok()
+                .contentType(JWK_SET)
+                .cacheControl(CacheControl.maxAge(properties.getJwksMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic())
+                .eTag(current.etag())
+                .body(current.body());
+    }
+
+    private Document current() throws JsonProcessingException {
+        List<Map<String, Object>> keys = keyRing.publishedKeys();
+        Document current = document;
+        if (current == null || current.keys() != keys) {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("keys", keys));
+            current = new Document(keys, body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+            document = current;
+        }
+        return current;
+    }
+
+    private record Document(List<Map<String, Object>> keys, byte[] body, String etag) {
+    }
+}
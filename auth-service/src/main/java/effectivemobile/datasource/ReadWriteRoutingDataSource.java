@@ -0,0 +1,155 @@
+package effectivemobile.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to a replica and everything else to the
+ * primary. Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction managers take the
+ * connection before they publish the read-only flag, so the target is only chosen on the first statement.
+ * <p>
+ * Every check first stamps the heartbeat row on the primary, then reads each replica's copy of it; the
+ * replica's lag is how old that copy is. Unlike comparing receive and replay positions, this also catches a
+ * standby whose WAL receiver has disconnected: it has replayed everything it got, but its heartbeat stops
+ * advancing. A replica that lags more than {@code max-lag-ms} or cannot be reached is skipped until it catches
+ * up, and read-only work falls back to the primary when none is usable. Replicas start out unusable until
+ * their first check.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final String HEARTBEAT_SQL = "UPDATE replication_heartbeat SET beat_at = now() WHERE id = 1";
+
+    // NULL when the heartbeat row has not been replicated yet
+    private static final String LAG_QUERY = """
+            SELECT EXTRACT(EPOCH FROM now() - beat_at) * 1000
+            FROM (SELECT 1) AS one
+            LEFT JOIN replication_heartbeat ON id = 1""";
+
+    private final JdbcTemplate primaryTemplate;
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<Replica> usable = List.of();
+
+    private final Counter writes;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary,
+                                      List<HikariDataSource> replicaPools,
+                                      long maxLagMs,
+                                      MeterRegistry meterRegistry) {
+        this.maxLagMs = maxLagMs;
+        this.primaryTemplate = new JdbcTemplate(primary);
+        this.primaryTemplate.setQueryTimeout(1);
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.name, replica.pool);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMs)
+                    .tag("replica", replica.name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.usable", replica, r -> r.usable ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.writes = routed(meterRegistry, "write");
+        this.replicaReads = routed(meterRegistry, "read_replica");
+        this.primaryReads = routed(meterRegistry, "read_primary");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return PRIMARY;
+        }
+        List<Replica> candidates = usable;
+        if (candidates.isEmpty()) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())).name;
+    }
+
+    @Scheduled(fixedDelayString = "${replica-routing.lag-check-interval-ms:2000}")
+    public void checkReplicas() {
+        try {
+            primaryTemplate.update(HEARTBEAT_SQL);
+        } catch (RuntimeException e) {
+            // Replicas then age out on their own and reads go to the primary, or fail with it
+            log.warn("Replication heartbeat could not be written: {}", e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.usable;
+            replica.check(maxLagMs);
+            if (wasUsable != replica.usable) {
+                log.warn("Replica {} is now {}: lagMs={}", replica.name,
+                        replica.usable ? "in rotation" : "out of rotation", replica.lagMs);
+            }
+        }
+        usable = replicas.stream().filter(replica -> replica.usable).toList();
+    }
+
+    // Replica pools belong to this data source; the primary is a bean of its own
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the routing data source")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource pool;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile double lagMs = Double.NaN;
+        private volatile boolean usable;
+
+        Replica(HikariDataSource pool) {
+            this.name = pool.getPoolName();
+            this.pool = pool;
+            this.jdbcTemplate = new JdbcTemplate(pool);
+            this.jdbcTemplate.setQueryTimeout(1);
+        }
+
+        void check(long maxLagMs) {
+            try {
+                Double lag = jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+                lagMs = lag != null ? lag : Double.NaN;
+                usable = lag != null && lag <= maxLagMs;
+            } catch (RuntimeException e) {
+                log.debug("Replica {} lag check failed", name, e);
+                lagMs = Double.NaN;
+                usable = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package effectivemobile.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkRegisterRequest(
+
+        @NotEmpty(message = "Emails are required")
+        @Size(max = 1000, message = "At most 1000 emails per request")
+        List<String> emails
+) {
+}
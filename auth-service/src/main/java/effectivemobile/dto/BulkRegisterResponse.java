@@ -0,0 +1,8 @@
+package effectivemobile.dto;
+
+import java.util.List;
+
+public record BulkRegisterResponse(
+        List<BulkRegisterResult> results
+) {
+}
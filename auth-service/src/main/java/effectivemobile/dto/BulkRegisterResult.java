@@ -0,0 +1,22 @@
+package effectivemobile.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkRegisterResult(
+        String email,
+        Status status,
+        UUID userId,
+        String message
+) {
+
+    public enum Status {
+        CREATED,
+        EXISTING,
+        INVALID_EMAIL,
+        DUPLICATE,
+        RATE_LIMITED
+    }
+}
@@ -1,6 +1,7 @@
 package effectivemobile.dto;
 
 public record JwtResponse(
-        String token
+        String token,
+        String refreshToken
 ) {
 }
@@ -0,0 +1,10 @@
+package effectivemobile.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshRequest(
+
+        @NotBlank(message = "Refresh token is required")
+        String refreshToken
+) {
+}
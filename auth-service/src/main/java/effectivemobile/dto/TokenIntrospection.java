@@ -0,0 +1,21 @@
+package effectivemobile.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(
+        boolean active,
+        UUID userId,
+        String email,
+        Boolean verified,
+        String tokenType,
+        UUID sessionId,
+        Long issuedAt,
+        Long expiresAt
+) {
+
+    public static final TokenIntrospection INACTIVE =
+            new TokenIntrospection(false, null, null, null, null, null, null, null);
+}
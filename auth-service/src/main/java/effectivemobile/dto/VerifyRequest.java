@@ -9,7 +9,7 @@ public record VerifyRequest(
         @Email(message = "Invalid email format")
         @NotBlank(message = "Email is required")
         String email,
-        @Pattern(regexp = "\\d{6}", message = "Code must be 6 digits")
+        @Pattern(regexp = "[0-9A-Za-z]{4,16}", message = "Code must be 4 to 16 letters or digits")
         String code
 ) {
 }
@@ -2,7 +2,6 @@ package effectivemobile.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -16,7 +15,7 @@ import java.util.UUID;
 public class User {
 
     @Id
-    @UuidGenerator
+    @GeneratedUuidV7
     private UUID id;
 
     @Column(nullable = false, unique = true)
@@ -2,7 +2,6 @@ package effectivemobile.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -16,13 +15,13 @@ import java.util.UUID;
 public class VerificationCode {
 
     @Id
-    @UuidGenerator
+    @GeneratedUuidV7
     private UUID id;
 
     @Column(nullable = false)
     private String email;
 
-    @Column(nullable = false, length = 6)
+    @Column(nullable = false, length = 16)
     private String code;
 
     @Column(nullable = false)
@@ -0,0 +1,7 @@
+package effectivemobile.exception;
+
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
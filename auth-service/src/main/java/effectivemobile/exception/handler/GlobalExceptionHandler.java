@@ -2,9 +2,13 @@ package effectivemobile.exception.handler;
 
 import effectivemobile.dto.ErrorResponse;
 import effectivemobile.exception.ExpiredVerificationCodeException;
+import effectivemobile.exception.InvalidTokenException;
 import effectivemobile.exception.InvalidVerificationCodeException;
 import effectivemobile.exception.TooManyRequestsException;
 import effectivemobile.exception.UserNotFoundException;
+import effectivemobile.logging.RequestLogSampler;
+import effectivemobile.metrics.AuthMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,37 +19,41 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import java.util.Objects;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final AuthMetrics metrics;
+    private final RequestLogSampler logSampler;
+
     @ExceptionHandler(InvalidVerificationCodeException.class)
     public ResponseEntity<ErrorResponse> handleInvalidCode(InvalidVerificationCodeException ex) {
-        log.warn("Invalid verification code={}", ex.getMessage());
         return build(HttpStatus.BAD_REQUEST, ex.getMessage(), "INVALID_CODE");
     }
 
     @ExceptionHandler(ExpiredVerificationCodeException.class)
     public ResponseEntity<ErrorResponse> handleExpiredCode(ExpiredVerificationCodeException ex) {
-        log.warn("Expired verification code={}", ex.getMessage());
         return build(HttpStatus.BAD_REQUEST, ex.getMessage(), "CODE_EXPIRED");
     }
 
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidToken(InvalidTokenException ex) {
+        return build(HttpStatus.UNAUTHORIZED, ex.getMessage(), "INVALID_TOKEN");
+    }
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex) {
-        log.warn("User not found={}", ex.getMessage());
         return build(HttpStatus.NOT_FOUND, ex.getMessage(), "USER_NOT_FOUND");
     }
 
     @ExceptionHandler(TooManyRequestsException.class)
     public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex) {
-        log.warn("Rate limit exceeded: {}", ex.getMessage());
         return build(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), "TOO_MANY_REQUESTS");
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex) {
         String message = Objects.requireNonNull(ex.getBindingResult().getFieldError()).getDefaultMessage();
-        log.warn("Validation error: {}", message);
         return build(HttpStatus.BAD_REQUEST, message, "VALIDATION_ERROR");
     }
 
@@ -56,6 +64,15 @@ public class GlobalExceptionHandler {
     }
 
     private ResponseEntity<ErrorResponse> build(HttpStatus status, String message, String error) {
+        metrics.recordRejection(error);
+        if (status.is4xxClientError() && logSampler.sample()) {
+            log.atWarn()
+                    .addKeyValue("event", "rejected")
+                    .addKeyValue("error", error)
+                    .addKeyValue("status", status.value())
+                    .addKeyValue("sampleRate", logSampler.rate())
+                    .log(message);
+        }
         return ResponseEntity.status(status).body(new ErrorResponse(message, error, status.value()));
     }
 }
@@ -1,32 +1,33 @@
 package effectivemobile.kafka;
 
-import effectivemobile.dto.VerificationMessage;
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.metrics.AuthMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaProducerService {
 
     private final KafkaTemplate<String, VerificationMessage> kafkaTemplate;
-    @Value("${kafka.topics.verification}")
-    private String topic;
-
-    public void sendVerificationCode(String email, String code) {
-        VerificationMessage message = new VerificationMessage(email, code);
-
-        log.info("Sending verification code to Kafka={}", message);
+    private final AuthMetrics metrics;
 
-        kafkaTemplate.send(topic, email, message)
+    public CompletableFuture<SendResult<String, VerificationMessage>> send(String topic, String key,
+                                                                          VerificationMessage message) {
+        long start = System.nanoTime();
+        return kafkaTemplate.send(topic, key, message)
                 .whenComplete((result, ex) -> {
+                    metrics.recordKafkaSend(start, ex == null);
                     if (ex != null) {
                         log.error("Failed to send verification message to Kafka", ex);
                     } else {
-                        log.info("Verification message sent to Kafka, offset={}", result.getRecordMetadata().offset());
+                        log.debug("Verification message sent to Kafka, offset={}", result.getRecordMetadata().offset());
                     }
                 });
     }
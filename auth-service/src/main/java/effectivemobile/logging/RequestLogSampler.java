@@ -0,0 +1,43 @@
+package effectivemobile.logging;
+
+import effectivemobile.config.RequestLoggingProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which per-request events get logged, so log volume stays flat as traffic grows. Sampled events
+ * carry {@code sampleRate} so counts can be scaled back up. Codes and emails go into events masked.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestLogSampler {
+
+    private final RequestLoggingProperties properties;
+
+    public boolean sample() {
+        double rate = properties.getSampleRate();
+        return rate >= 1.0 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public double rate() {
+        return properties.getSampleRate();
+    }
+
+    public static String maskCode(String code) {
+        return code == null ? null : "*".repeat(code.length());
+    }
+
+    // Keeps the first character and the domain, enough to tell users apart when following one through the logs
+    public static String maskEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        if (at <= 0) {
+            return "***";
+        }
+        return email.charAt(0) + "***" + email.substring(at);
+    }
+}
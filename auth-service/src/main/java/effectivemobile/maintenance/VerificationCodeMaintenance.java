@@ -0,0 +1,168 @@
+package effectivemobile.maintenance;
+
+import effectivemobile.config.VerificationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps {@code verification_codes} bounded. On a partitioned table daily partitions are created
+ * ahead of time and expired ones are dropped whole; whatever lands in the default partition (or the
+ * whole table on non-partitioned deployments) is purged in small, paced batches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationCodeMaintenance {
+
+    private static final String TABLE = "verification_codes";
+    private static final String DEFAULT_PARTITION = "verification_codes_default";
+    private static final String PARTITION_PREFIX = "verification_codes_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final long LOCK_KEY = 0x7665726966696361L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VerificationProperties properties;
+
+    @Scheduled(cron = "${verification.maintenance.cron:0 */10 * * * *}")
+    public void run() {
+        if (!properties.getMaintenance().isEnabled()) {
+            return;
+        }
+
+        boolean partitioned = isPartitioned();
+        if (partitioned) {
+            maintainPartitions();
+        }
+        purgeExpired(partitioned ? DEFAULT_PARTITION : TABLE);
+    }
+
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = ?::regclass)",
+                Boolean.class, TABLE);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    public void maintainPartitions() {
+        VerificationProperties.Maintenance maintenance = properties.getMaintenance();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                if (!tryLock(statement)) {
+                    log.debug("Partition maintenance is running on another instance, skipping");
+                    return null;
+                }
+                try {
+                    statement.execute("SET lock_timeout = " + maintenance.getDdlLockTimeoutMs());
+                    for (int day = 0; day <= maintenance.getPremakeDays(); day++) {
+                        createPartition(statement, today.plusDays(day));
+                    }
+                    for (String partition : expiredPartitions(statement, today.minusDays(maintenance.getRetentionDays()))) {
+                        dropPartition(statement, partition);
+                    }
+                } finally {
+                    statement.execute("RESET lock_timeout");
+                    statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+            return null;
+        });
+    }
+
+    public int purgeExpired(String table) {
+        VerificationProperties.Maintenance maintenance = properties.getMaintenance();
+        String sql = "DELETE FROM " + table + " WHERE ctid = ANY(ARRAY("
+                + "SELECT ctid FROM " + table
+                + " WHERE expires_at < now() - make_interval(mins => ?) LIMIT ?))";
+
+        int total = 0;
+        for (int batch = 0; batch < maintenance.getPurgeMaxBatches(); batch++) {
+            int deleted = jdbcTemplate.update(sql, maintenance.getPurgeGraceMinutes(), maintenance.getPurgeBatchSize());
+            total += deleted;
+            if (deleted < maintenance.getPurgeBatchSize() || !pause(maintenance.getPurgePauseMs())) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Purged {} expired verification codes from {}", total, table);
+        }
+        return total;
+    }
+
+    private boolean tryLock(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private void createPartition(Statement statement, LocalDate day) {
+        String partition = PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+        try {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+        } catch (SQLException e) {
+            log.warn("Failed to create partition={}: {}", partition, e.getMessage());
+        }
+    }
+
+    private List<String> expiredPartitions(Statement statement, LocalDate cutoff) throws SQLException {
+        List<String> expired = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'verification_codes'::regclass
+                """)) {
+            while (rs.next()) {
+                String partition = rs.getString(1);
+                if (!partition.startsWith(PARTITION_PREFIX)) {
+                    continue;
+                }
+                try {
+                    LocalDate day = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+                    if (!day.plusDays(1).isAfter(cutoff)) {
+                        expired.add(partition);
+                    }
+                } catch (DateTimeParseException e) {
+                    log.warn("Skipping partition with unexpected name={}", partition);
+                }
+            }
+        }
+        return expired;
+    }
+
+    // DETACH ... CONCURRENTLY is not allowed next to a default partition, so the drop is guarded by lock_timeout instead
+    private void dropPartition(Statement statement, String partition) {
+        try {
+            statement.execute("DROP TABLE " + partition);
+            log.info("Dropped expired partition={}", partition);
+        } catch (SQLException e) {
+            log.warn("Failed to drop partition={}, will retry: {}", partition, e.getMessage());
+        }
+    }
+
+    private boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
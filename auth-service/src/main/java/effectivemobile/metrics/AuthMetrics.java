@@ -0,0 +1,125 @@
+package effectivemobile.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-phase timers for the register and verify paths. All timers publish percentile histograms so the
+ * Prometheus side can compute quantiles across replicas.
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String REGISTER_TIMER = "auth.register.phase";
+    public static final String VERIFY_TIMER = "auth.verify.phase";
+    public static final String JWT_TIMER = "auth.jwt";
+    public static final String KAFKA_SEND_TIMER = "auth.kafka.send";
+    public static final String FILTER_LOOKUP_TIMER = "auth.filter.user.lookup";
+    public static final String REJECTIONS_COUNTER = "auth.rejections";
+
+    private final MeterRegistry registry;
+
+    private final Timer rateLimit;
+    private final Timer userLookup;
+    private final Timer userInsert;
+    private final Timer codeInsert;
+    private final Timer outboxEnqueue;
+    private final Timer redeem;
+    private final Timer tokenIssue;
+    private final Timer jwtSign;
+    private final Timer jwtParse;
+    private final Timer kafkaAcked;
+    private final Timer kafkaFailed;
+    private final Timer statelessLookup;
+    private final Timer repositoryLookup;
+    private final ConcurrentMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        this.rateLimit = timer(REGISTER_TIMER, "Register phase latency", "phase", "rate_limit");
+        this.userLookup = timer(REGISTER_TIMER, "Register phase latency", "phase", "user_lookup");
+        this.userInsert = timer(REGISTER_TIMER, "Register phase latency", "phase", "user_insert");
+        this.codeInsert = timer(REGISTER_TIMER, "Register phase latency", "phase", "code_insert");
+        this.outboxEnqueue = timer(REGISTER_TIMER, "Register phase latency", "phase", "outbox_enqueue");
+
+        this.redeem = timer(VERIFY_TIMER, "Verify phase latency", "phase", "redeem");
+        this.tokenIssue = timer(VERIFY_TIMER, "Verify phase latency", "phase", "token_issue");
+
+        this.jwtSign = timer(JWT_TIMER, "JWT signing and parsing latency", "operation", "sign");
+        this.jwtParse = timer(JWT_TIMER, "JWT signing and parsing latency", "operation", "parse");
+
+        this.kafkaAcked = timer(KAFKA_SEND_TIMER, "Time from send to broker acknowledgement", "result", "acked");
+        this.kafkaFailed = timer(KAFKA_SEND_TIMER, "Time from send to broker acknowledgement", "result", "failed");
+
+        this.statelessLookup = timer(FILTER_LOOKUP_TIMER, "Principal resolution in the JWT filter", "principal", "stateless");
+        this.repositoryLookup = timer(FILTER_LOOKUP_TIMER, "Principal resolution in the JWT filter", "principal", "repository");
+    }
+
+    public void timeRateLimit(Runnable check) {
+        rateLimit.record(check);
+    }
+
+    public <T> T timeUserLookup(Supplier<T> lookup) {
+        return userLookup.record(lookup);
+    }
+
+    public <T> T timeUserInsert(Supplier<T> insert) {
+        return userInsert.record(insert);
+    }
+
+    public <T> T timeCodeInsert(Supplier<T> insert) {
+        return codeInsert.record(insert);
+    }
+
+    public void timeOutboxEnqueue(Runnable enqueue) {
+        outboxEnqueue.record(enqueue);
+    }
+
+    public <T> T timeRedeem(Supplier<T> redemption) {
+        return redeem.record(redemption);
+    }
+
+    public <T> T timeTokenIssue(Supplier<T> issue) {
+        return tokenIssue.record(issue);
+    }
+
+    public <T> T timeJwtSign(Supplier<T> sign) {
+        return jwtSign.record(sign);
+    }
+
+    public <T> T timeJwtParse(Supplier<T> parse) {
+        return jwtParse.record(parse);
+    }
+
+    public <T> T timeFilterLookup(boolean stateless, Supplier<T> lookup) {
+        return (stateless ? statelessLookup : repositoryLookup).record(lookup);
+    }
+
+    public void recordKafkaSend(long startNanos, boolean acked) {
+        (acked ? kafkaAcked : kafkaFailed).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejection(String error) {
+        rejections.computeIfAbsent(error, code -> Counter.builder(REJECTIONS_COUNTER)
+                        .description("Requests rejected, by ErrorResponse.error code")
+                        .tag("error", code)
+                        .register(registry))
+                .increment();
+    }
+
+    private Timer timer(String name, String description, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,226 @@
+package effectivemobile.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.config.OutboxProperties;
+import effectivemobile.kafka.KafkaProducerService;
+import effectivemobile.message.VerificationMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox in batches. Each worker claims rows by stamping a lease on them in one short statement
+ * ({@code FOR UPDATE SKIP LOCKED} picks the rows), so workers on this and other replicas never publish the same
+ * row while no row lock or transaction is held during the wait for acks. The worker sends the whole batch,
+ * deletes the rows the broker acknowledged and releases the rest for the next drain. Rows of a worker that
+ * died mid-batch become claimable again once the lease runs out. Delivery is at-least-once.
+ * <p>
+ * Drains run on a fixed pool with a bounded queue, started either by the poll or right after a register commits.
+ * When the queue is full the request is dropped and the messages wait for the next poll. With
+ * {@code outbox.enabled: false} neither starts a drain.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String CLAIM_SQL = """
+            UPDATE outbox SET claimed_until = now() + ? * interval '1 millisecond'
+            WHERE id IN (
+                SELECT id
+                FROM outbox
+                WHERE claimed_until IS NULL OR claimed_until < now()
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, topic, message_key, payload, created_at
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM outbox WHERE id = ANY(?)";
+
+    private static final String RELEASE_SQL = "UPDATE outbox SET claimed_until = NULL WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KafkaProducerService producer;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final ThreadPoolExecutor workers;
+    private final Counter rejectedDrains;
+    private final Timer deliveryLag;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       KafkaProducerService producer,
+                       ObjectMapper objectMapper,
+                       OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.producer = producer;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.workers = new ThreadPoolExecutor(properties.getParallelism(), properties.getParallelism(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getDispatchQueueCapacity()),
+                Thread.ofPlatform().name("outbox-relay-", 0).daemon().factory());
+
+        Gauge.builder("outbox.dispatch.queue.depth", workers, executor -> executor.getQueue().size())
+                .description("Outbox drains waiting for a relay worker")
+                .register(meterRegistry);
+        this.rejectedDrains = Counter.builder("outbox.dispatch.rejected")
+                .description("Drain requests dropped because the dispatch queue was full")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Time from outbox insert to broker acknowledgement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void requestDrain() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            workers.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            rejectedDrains.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:200}")
+    public void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        List<Future<?>> drains = new ArrayList<>();
+        for (int i = 0; i < properties.getParallelism(); i++) {
+            try {
+                drains.add(workers.submit(this::drain));
+            } catch (RejectedExecutionException e) {
+                rejectedDrains.increment();
+            }
+        }
+        for (Future<?> drain : drains) {
+            try {
+                drain.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Outbox relay worker failed", e.getCause());
+            }
+        }
+    }
+
+    public void drain() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == properties.getBatchSize());
+    }
+
+    private int relayBatch() {
+        List<OutboxRow> rows = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new OutboxRow(
+                rs.getLong("id"),
+                rs.getString("topic"),
+                rs.getString("message_key"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toInstant()), properties.getClaimTimeoutMs(), properties.getBatchSize());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // RETURNING has no order; sending by id keeps the messages of one key in insert order
+        rows.sort(Comparator.comparingLong(OutboxRow::id));
+
+        List<Long> done = new ArrayList<>(rows.size());
+        List<Long> failed = new ArrayList<>();
+        List<OutboxRow> sent = new ArrayList<>(rows.size());
+        List<CompletableFuture<?>> acks = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            VerificationMessage message = deserialize(row);
+            if (message == null) {
+                done.add(row.id());
+                continue;
+            }
+            try {
+                acks.add(producer.send(row.topic(), row.messageKey(), message));
+                sent.add(row);
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay could not hand message id={} to the producer: {}", row.id(), e.getMessage());
+                failed.add(row.id());
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getSendTimeoutMs());
+        for (int i = 0; i < acks.size(); i++) {
+            if (awaitAck(acks.get(i), deadline)) {
+                done.add(sent.get(i).id());
+                deliveryLag.record(Duration.between(sent.get(i).createdAt(), Instant.now()));
+            } else {
+                failed.add(sent.get(i).id());
+            }
+        }
+
+        updateByIds(DELETE_SQL, done);
+        if (!failed.isEmpty()) {
+            updateByIds(RELEASE_SQL, failed);
+            log.warn("Outbox relay delivered {} of {} messages, the rest will be retried", done.size(), rows.size());
+        }
+        return done.size();
+    }
+
+    private void updateByIds(String sql, List<Long> ids) {
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+        }
+    }
+
+    private boolean awaitAck(CompletableFuture<?> ack, long deadline) {
+        try {
+            ack.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private VerificationMessage deserialize(OutboxRow row) {
+        try {
+            return objectMapper.readValue(row.payload(), VerificationMessage.class);
+        } catch (JsonProcessingException e) {
+            log.error("Dropping unreadable outbox message id={}", row.id(), e);
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private record OutboxRow(long id, String topic, String messageKey, String payload, Instant createdAt) {
+    }
+}
@@ -0,0 +1,81 @@
+package effectivemobile.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.config.OutboxProperties;
+import effectivemobile.entity.OutboxMessage;
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository repository;
+    private final OutboxRelay relay;
+    private final OutboxProperties properties;
+    private final ObjectMapper objectMapper;
+    @Value("${kafka.topics.verification}")
+    private String topic;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueVerificationCode(String email, String code) {
+        repository.save(message(email, code));
+        dispatchAfterCommit(1);
+    }
+
+    // Inserts are batched by Hibernate; after commit the relay publishes them in batch-size bursts
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueVerificationCodes(Map<String, String> codesByEmail) {
+        if (codesByEmail.isEmpty()) {
+            return;
+        }
+        List<OutboxMessage> messages = new ArrayList<>(codesByEmail.size());
+        codesByEmail.forEach((email, code) -> messages.add(message(email, code)));
+        repository.saveAll(messages);
+        dispatchAfterCommit(messages.size());
+    }
+
+    private OutboxMessage message(String email, String code) {
+        OutboxMessage message = new OutboxMessage();
+        message.setTopic(topic);
+        message.setMessageKey(email);
+        message.setPayload(serialize(new VerificationMessage(email, code)));
+        return message;
+    }
+
+    private void dispatchAfterCommit(int messages) {
+        if (!properties.isDispatchOnCommit()) {
+            return;
+        }
+        int batches = (messages + properties.getBatchSize() - 1) / properties.getBatchSize();
+        int drains = Math.max(1, Math.min(properties.getParallelism(), batches));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (int i = 0; i < drains; i++) {
+                    relay.requestDrain();
+                }
+            }
+        });
+    }
+
+    private String serialize(VerificationMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize verification message", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package effectivemobile.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import effectivemobile.config.VerificationProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key kept as a single "theoretical arrival time" (GCRA), updated with CAS.
+ * A bucket idle for longer than it takes to refill completely is indistinguishable from a new one,
+ * so evicting it after that period loses nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "verification.rate-limit-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Cache<String, Bucket> buckets;
+
+    public InMemoryRateLimitStore(VerificationProperties properties) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(properties.getRateLimitSeconds());
+        this.burstNanos = intervalNanos * Math.max(1, properties.getRateLimitBurst());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getRateLimitMaxKeys())
+                .expireAfter(new Expiry<String, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(String key, Bucket bucket, long currentTime) {
+                        return bucket.burstNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        return bucket.burstNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        return bucket.burstNanos();
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Duration tryConsume(String key) {
+        return consume(key, intervalNanos, burstNanos);
+    }
+
+    @Override
+    public Map<String, Duration> tryConsume(Collection<String> keys) {
+        Map<String, Duration> waits = new HashMap<>();
+        for (String key : keys) {
+            waits.computeIfAbsent(key, this::tryConsume);
+        }
+        return waits;
+    }
+
+    @Override
+    public Duration tryConsume(String key, int cost, Duration interval, int burst) {
+        if (cost > burst) {
+            throw new IllegalArgumentException("cost " + cost + " exceeds burst " + burst);
+        }
+        return consume(key, interval.toNanos() * cost, interval.toNanos() * burst);
+    }
+
+    private Duration consume(String key, long costNanos, long burstNanos) {
+        if (costNanos == 0) {
+            return Duration.ZERO;
+        }
+
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.get(key, k -> new Bucket(new AtomicLong(now), burstNanos)).arrival();
+
+        while (true) {
+            long current = arrival.get();
+            long next = (current - now > 0 ? current : now) + costNanos;
+            long excess = next - now - burstNanos;
+
+            if (excess > 0) {
+                return Duration.ofNanos(excess);
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    // Idle buckets expire once they would have refilled, which depends on each bucket's own burst
+    private record Bucket(AtomicLong arrival, long burstNanos) {
+    }
+}
@@ -0,0 +1,133 @@
+package effectivemobile.ratelimit;
+
+import effectivemobile.config.VerificationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide variant of {@link InMemoryRateLimitStore}: the same GCRA bucket lives in the
+ * {@code rate_limits} table and check-and-consume is a single upsert, so replicas never race
+ * between reading and writing the bucket.
+ */
+@Component
+@ConditionalOnProperty(name = "verification.rate-limit-store", havingValue = "jdbc")
+@Slf4j
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final String CONSUME_SQL = """
+            INSERT INTO rate_limits (rate_key, tat_ms, granted)
+            VALUES (:key, :now + :cost, TRUE)
+            ON CONFLICT (rate_key) DO UPDATE SET
+                granted = GREATEST(rate_limits.tat_ms, :now) + :cost - :now <= :burst,
+                tat_ms = CASE
+                    WHEN GREATEST(rate_limits.tat_ms, :now) + :cost - :now <= :burst
+                        THEN GREATEST(rate_limits.tat_ms, :now) + :cost
+                    ELSE rate_limits.tat_ms
+                END
+            RETURNING tat_ms, granted
+            """;
+
+    // Same upsert for many keys; rows are locked in key order so overlapping batches cannot deadlock
+    private static final String CONSUME_MANY_SQL = """
+            INSERT INTO rate_limits (rate_key, tat_ms, granted)
+            SELECT DISTINCT rate_key, :now + :cost, TRUE FROM unnest(:keys) AS keys (rate_key)
+            ORDER BY rate_key
+            ON CONFLICT (rate_key) DO UPDATE SET
+                granted = GREATEST(rate_limits.tat_ms, :now) + :cost - :now <= :burst,
+                tat_ms = CASE
+                    WHEN GREATEST(rate_limits.tat_ms, :now) + :cost - :now <= :burst
+                        THEN GREATEST(rate_limits.tat_ms, :now) + :cost
+                    ELSE rate_limits.tat_ms
+                END
+            RETURNING rate_key, tat_ms, granted
+            """;
+
+    private static final String PURGE_SQL = "DELETE FROM rate_limits WHERE tat_ms < :now";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final long intervalMillis;
+    private final long burstMillis;
+
+    public JdbcRateLimitStore(NamedParameterJdbcTemplate jdbcTemplate, VerificationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.intervalMillis = TimeUnit.SECONDS.toMillis(properties.getRateLimitSeconds());
+        this.burstMillis = intervalMillis * Math.max(1, properties.getRateLimitBurst());
+    }
+
+    @Override
+    public Duration tryConsume(String key) {
+        return consume(key, intervalMillis, burstMillis);
+    }
+
+    @Override
+    public Map<String, Duration> tryConsume(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        long now = System.currentTimeMillis();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("keys", new SqlParameterValue(Types.ARRAY, "varchar", keys.toArray(String[]::new)))
+                .addValue("now", now)
+                .addValue("cost", intervalMillis)
+                .addValue("burst", burstMillis);
+
+        Map<String, Duration> waits = new HashMap<>();
+        jdbcTemplate.query(CONSUME_MANY_SQL, params, rs -> {
+            waits.put(rs.getString("rate_key"), rs.getBoolean("granted")
+                    ? Duration.ZERO
+                    : Duration.ofMillis(Math.max(1, rs.getLong("tat_ms") + intervalMillis - now - burstMillis)));
+        });
+        return waits;
+    }
+
+    @Override
+    public Duration tryConsume(String key, int cost, Duration interval, int burst) {
+        if (cost > burst) {
+            throw new IllegalArgumentException("cost " + cost + " exceeds burst " + burst);
+        }
+        return consume(key, interval.toMillis() * cost, interval.toMillis() * burst);
+    }
+
+    private Duration consume(String key, long costMillis, long burstMillis) {
+        if (costMillis == 0) {
+            return Duration.ZERO;
+        }
+
+        long now = System.currentTimeMillis();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("now", now)
+                .addValue("cost", costMillis)
+                .addValue("burst", burstMillis);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(CONSUME_SQL, params);
+        if (Boolean.TRUE.equals(row.get("granted"))) {
+            return Duration.ZERO;
+        }
+
+        long tat = ((Number) row.get("tat_ms")).longValue();
+        return Duration.ofMillis(Math.max(1, tat + costMillis - now - burstMillis));
+    }
+
+    // A bucket whose arrival time is in the past is full again, i.e. the same as a missing row
+    @Scheduled(fixedDelayString = "${verification.rate-limit-purge-interval-ms:60000}")
+    public void purgeIdle() {
+        int purged = jdbcTemplate.update(PURGE_SQL, Map.of("now", System.currentTimeMillis()));
+        if (purged > 0) {
+            log.debug("Purged {} idle rate limit buckets", purged);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package effectivemobile.ratelimit;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+public interface RateLimitStore {
+
+    /**
+     * Atomically checks the bucket for {@code key} and takes a token from it.
+     *
+     * @return {@link Duration#ZERO} if a token was taken, otherwise the time until the next one is available
+     */
+    Duration tryConsume(String key);
+
+    /**
+     * {@link #tryConsume(String)} for each of {@code keys}, in one round trip where the store allows it.
+     *
+     * @return the result per distinct key, in no particular order
+     */
+    Map<String, Duration> tryConsume(Collection<String> keys);
+
+    /**
+     * Same as {@link #tryConsume(String)} for a bucket with its own rate: one token per {@code interval}, at most
+     * {@code burst} of them banked. {@code cost} tokens are taken at once or not at all; it must not exceed
+     * {@code burst}.
+     */
+    Duration tryConsume(String key, int cost, Duration interval, int burst);
+}
@@ -0,0 +1,17 @@
+package effectivemobile.repository;
+
+import java.util.UUID;
+
+public record CodeRedemption(
+        Status status,
+        UUID userId,
+        String email
+) {
+
+    public enum Status {
+        REDEEMED,
+        INVALID,
+        EXPIRED,
+        USER_NOT_FOUND
+    }
+}
@@ -0,0 +1,9 @@
+package effectivemobile.repository;
+
+import effectivemobile.entity.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+}
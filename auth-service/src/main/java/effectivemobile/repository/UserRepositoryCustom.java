@@ -0,0 +1,16 @@
+package effectivemobile.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Inserts an unverified user for each email that has none yet.
+     *
+     * @return ids of the users actually inserted, by email; emails taken meanwhile by another transaction are absent
+     */
+    Map<String, UUID> insertIfAbsent(Collection<String> emails, Instant now);
+}
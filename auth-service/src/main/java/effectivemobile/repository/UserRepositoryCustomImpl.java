@@ -0,0 +1,55 @@
+package effectivemobile.repository;
+
+import effectivemobile.util.UuidV7;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Inserts a batch of users in one statement. A conflict on {@code email}, e.g. with a concurrent single
+ * registration, skips that row instead of aborting the whole transaction.
+ */
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO users (id, email, verified, created_at, updated_at)
+            SELECT t.id, t.email, false, ?, ?
+            FROM unnest(?::uuid[], ?::varchar[]) AS t(id, email)
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id, email
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, UUID> insertIfAbsent(Collection<String> emails, Instant now) {
+        Map<String, UUID> inserted = new HashMap<>();
+        if (emails.isEmpty()) {
+            return inserted;
+        }
+
+        UUID[] ids = new UUID[emails.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UuidV7.next();
+        }
+        Timestamp timestamp = Timestamp.from(now);
+
+        jdbcTemplate.query(INSERT_IF_ABSENT_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setTimestamp(1, timestamp);
+            ps.setTimestamp(2, timestamp);
+            ps.setArray(3, connection.createArrayOf("uuid", ids));
+            ps.setArray(4, connection.createArrayOf("varchar", emails.toArray()));
+        }, (RowCallbackHandler) rs -> inserted.put(rs.getString("email"), rs.getObject("id", UUID.class)));
+        return inserted;
+    }
+}
@@ -0,0 +1,8 @@
+package effectivemobile.repository;
+
+import java.time.Instant;
+
+public interface VerificationCodeRepositoryCustom {
+
+    CodeRedemption redeem(String email, String code, Instant now);
+}
@@ -0,0 +1,71 @@
+package effectivemobile.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Consumes the newest unused code and marks its user verified in one statement. The candidate row is
+ * locked, so a concurrent redemption of the same code re-checks {@code used = false} after the first
+ * one commits and finds nothing.
+ */
+@RequiredArgsConstructor
+public class VerificationCodeRepositoryCustomImpl implements VerificationCodeRepositoryCustom {
+
+    private static final String REDEEM_SQL = """
+            WITH candidate AS (
+                SELECT id, created_at, expires_at
+                FROM verification_codes
+                WHERE email = :email AND code = :code AND used = false
+                ORDER BY created_at DESC
+                LIMIT 1
+                FOR UPDATE
+            ), consumed AS (
+                UPDATE verification_codes vc
+                SET used = true
+                FROM candidate c
+                WHERE vc.id = c.id AND vc.created_at = c.created_at AND c.expires_at > :now
+                RETURNING vc.email
+            ), verified AS (
+                UPDATE users u
+                SET verified = true, updated_at = :now
+                FROM consumed
+                WHERE u.email = consumed.email
+                RETURNING u.id, u.email
+            )
+            SELECT (SELECT count(*) FROM candidate) AS found,
+                   (SELECT count(*) FROM consumed) AS consumed,
+                   v.id AS user_id,
+                   v.email AS user_email
+            FROM (SELECT 1) AS one
+            LEFT JOIN verified v ON true
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public CodeRedemption redeem(String email, String code, Instant now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("email", email)
+                .addValue("code", code)
+                .addValue("now", Timestamp.from(now));
+
+        return jdbcTemplate.queryForObject(REDEEM_SQL, params, (rs, rowNum) -> {
+            if (rs.getLong("found") == 0) {
+                return new CodeRedemption(CodeRedemption.Status.INVALID, null, email);
+            }
+            if (rs.getLong("consumed") == 0) {
+                return new CodeRedemption(CodeRedemption.Status.EXPIRED, null, email);
+            }
+            UUID userId = rs.getObject("user_id", UUID.class);
+            if (userId == null) {
+                return new CodeRedemption(CodeRedemption.Status.USER_NOT_FOUND, null, email);
+            }
+            return new CodeRedemption(CodeRedemption.Status.REDEEMED, userId, rs.getString("user_email"));
+        });
+    }
+}
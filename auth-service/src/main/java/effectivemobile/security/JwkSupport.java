@@ -0,0 +1,112 @@
+package effectivemobile.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PEM key parsing and the JWK form of public keys (RFC 7517), with key ids taken from the RFC 7638 thumbprint.
+ */
+final class JwkSupport {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private JwkSupport() {
+    }
+
+    static PrivateKey privateKey(String pem, SignatureAlgorithm algorithm) {
+        try {
+            return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("jwt.private-key is not a PKCS#8 " + algorithm.getFamilyName() + " key", e);
+        }
+    }
+
+    static PublicKey publicKey(String pem, SignatureAlgorithm algorithm) {
+        try {
+            return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Public key is not an X.509 " + algorithm.getFamilyName() + " key", e);
+        }
+    }
+
+    static Map<String, Object> toJwk(String kid, PublicKey key, SignatureAlgorithm algorithm) {
+        Map<String, Object> jwk = new LinkedHashMap<>(members(key));
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        return jwk;
+    }
+
+    static String thumbprint(PublicKey key) {
+        // Required members only, in lexicographic order and without whitespace
+        StringBuilder json = new StringBuilder("{");
+        members(key).entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> json.append(json.length() > 1 ? "," : "")
+                        .append('"').append(e.getKey()).append("\":\"").append(e.getValue()).append('"'));
+        json.append('}');
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.toString().getBytes(StandardCharsets.UTF_8));
+            return BASE64_URL.encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Map<String, String> members(PublicKey key) {
+        Map<String, String> members = new LinkedHashMap<>();
+        if (key instanceof RSAPublicKey rsa) {
+            members.put("kty", "RSA");
+            members.put("n", encode(rsa.getModulus(), 0));
+            members.put("e", encode(rsa.getPublicExponent(), 0));
+        } else if (key instanceof ECPublicKey ec) {
+            int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            members.put("kty", "EC");
+            members.put("crv", "P-" + ec.getParams().getCurve().getField().getFieldSize());
+            members.put("x", encode(ec.getW().getAffineX(), size));
+            members.put("y", encode(ec.getW().getAffineY(), size));
+        } else {
+            throw new IllegalArgumentException("Unsupported key type " + key.getAlgorithm());
+        }
+        return members;
+    }
+
+    // Unsigned big-endian, left-padded to length when it is non-zero
+    private static String encode(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (length > bytes.length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return BASE64_URL.encodeToString(bytes);
+    }
+
+    private static KeyFactory keyFactory(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+    }
+
+    private static byte[] decodePem(String pem) {
+        String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
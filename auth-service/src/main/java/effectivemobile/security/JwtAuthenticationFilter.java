@@ -1,7 +1,11 @@
 package effectivemobile.security;
 
+import effectivemobile.cache.UserCache;
+import effectivemobile.config.JwtProperties;
 import effectivemobile.entity.User;
-import effectivemobile.repository.UserRepository;
+import effectivemobile.metrics.AuthMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,8 +26,11 @@ import java.util.UUID;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository repository;
-
+    private final UserCache userCache;
+    private final UserStatusCache userStatusCache;
+    private final JwtProperties properties;
+    private final AuthMetrics metrics;
+    private final RevocationList revocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,13 +43,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = header.substring(7);
-        UUID userId = jwtService.extractUserId(token);
-        if (userId == null) {
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (JwtService.isRefreshToken(claims) || isRevoked(claims)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        User user = repository.findById(userId).orElse(null);
+        User user = resolveUser(claims);
         if (user == null) {
             filterChain.doFilter(request, response);
             return;
@@ -54,4 +68,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
+
+    private boolean isRevoked(Claims claims) {
+        UUID sessionId = JwtService.sessionId(claims);
+        return sessionId != null && revocationList.isRevoked(sessionId);
+    }
+
+    private User resolveUser(Claims claims) {
+        UUID userId = UUID.fromString(claims.getSubject());
+
+        // Tokens issued before the verified claim existed still go through the database
+        if (properties.isStatelessPrincipal() && claims.containsKey(JwtService.VERIFIED_CLAIM)) {
+            return metrics.timeFilterLookup(true,
+                    () -> userStatusCache.isActive(userId) ? jwtService.toPrincipal(claims) : null);
+        }
+
+        return metrics.timeFilterLookup(false, () -> userCache.findById(userId).orElse(null));
+    }
 }
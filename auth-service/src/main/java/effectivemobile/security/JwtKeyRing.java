@@ -0,0 +1,214 @@
+package effectivemobile.security;
+
+import effectivemobile.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.ConfigTreePropertySource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Signing and verification keys.
+ * <p>
+ * Keys come from {@link JwtProperties}, which is bound once at startup. To rotate keys without a restart, mount them
+ * as files in {@code jwt.key-directory} (one file per property, e.g. {@code private-key}, {@code public-key},
+ * {@code previous-public-keys}); the directory is re-read and bound over the startup values on every refresh.
+ * <p>
+ * With HS256 tokens are signed with {@code secret}. With RS256 or ES256 they are signed with {@code private-key}
+ * and the public keys ({@code public-key} and {@code previous-public-keys}) are published as a JWKS so other
+ * services can verify tokens locally. Configured HMAC secrets keep verifying tokens issued before a switch to
+ * asymmetric signing until they expire.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtKeyRing {
+
+    private static final Set<SignatureAlgorithm> SUPPORTED =
+            Set.of(SignatureAlgorithm.HS256, SignatureAlgorithm.RS256, SignatureAlgorithm.ES256);
+
+    private final JwtProperties properties;
+
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return resolve(header.getKeyId());
+                }
+            })
+            .build();
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.key-refresh-interval-ms:30000}",
+            initialDelayString = "${jwt.key-refresh-interval-ms:30000}")
+    public void reload() {
+        Source source = source(current());
+
+        Snapshot current = snapshot;
+        if (current != null && current.source().equals(source)) {
+            return;
+        }
+
+        Map<String, Key> keys = new LinkedHashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        String activeKid;
+        Key activeKey;
+
+        if (source.algorithm() == SignatureAlgorithm.HS256) {
+            activeKid = hmacKid(source.secrets().get(0));
+            activeKey = Keys.hmacShaKeyFor(source.secrets().get(0).getBytes(StandardCharsets.UTF_8));
+        } else {
+            PublicKey publicKey = JwkSupport.publicKey(source.publicKeys().get(0), source.algorithm());
+            activeKid = JwkSupport.thumbprint(publicKey);
+            activeKey = JwkSupport.privateKey(source.privateKey(), source.algorithm());
+
+            for (String pem : source.publicKeys()) {
+                PublicKey key = JwkSupport.publicKey(pem, source.algorithm());
+                String kid = JwkSupport.thumbprint(key);
+                if (keys.putIfAbsent(kid, key) == null) {
+                    jwks.add(JwkSupport.toJwk(kid, key, source.algorithm()));
+                }
+            }
+        }
+
+        for (String secret : source.secrets()) {
+            keys.putIfAbsent(hmacKid(secret), Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // Tokens from before key ids were introduced were signed with the current secret
+        Key unkeyed = source.secrets().isEmpty() ? null : keys.get(hmacKid(source.secrets().get(0)));
+
+        snapshot = new Snapshot(source, activeKid, activeKey, unkeyed, Map.copyOf(keys), List.copyOf(jwks));
+        log.info("JWT key ring loaded, algorithm={}, activeKid={}, keys={}", source.algorithm(), activeKid, keys.size());
+    }
+
+    public JwtBuilder sign(JwtBuilder builder) {
+        Snapshot current = snapshot;
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, current.activeKid())
+                .signWith(current.activeKey(), current.source().algorithm());
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    // Public keys as JWK objects; the same list instance is returned until the keys change
+    public List<Map<String, Object>> publishedKeys() {
+        return snapshot.jwks();
+    }
+
+    // Startup values overlaid with whatever is in the key directory right now
+    private JwtProperties current() {
+        if (isBlank(properties.getKeyDirectory())) {
+            return properties;
+        }
+        JwtProperties current = new JwtProperties();
+        current.setAlgorithm(properties.getAlgorithm());
+        current.setSecret(properties.getSecret());
+        current.setPreviousSecrets(properties.getPreviousSecrets());
+        current.setPrivateKey(properties.getPrivateKey());
+        current.setPublicKey(properties.getPublicKey());
+        current.setPreviousPublicKeys(properties.getPreviousPublicKeys());
+
+        ConfigTreePropertySource files = new ConfigTreePropertySource("jwt-keys",
+                Path.of(properties.getKeyDirectory()), ConfigTreePropertySource.Option.AUTO_TRIM_TRAILING_NEW_LINE);
+        new Binder(ConfigurationPropertySources.from(files))
+                .bind(ConfigurationPropertyName.EMPTY, Bindable.ofInstance(current));
+        return current;
+    }
+
+    private static Source source(JwtProperties properties) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(properties.getAlgorithm());
+        if (!SUPPORTED.contains(algorithm)) {
+            throw new IllegalStateException("jwt.algorithm must be one of " + SUPPORTED + ", got " + algorithm);
+        }
+
+        List<String> secrets = new ArrayList<>();
+        if (!isBlank(properties.getSecret())) {
+            secrets.add(properties.getSecret());
+        }
+        properties.getPreviousSecrets().stream()
+                .filter(secret -> !isBlank(secret))
+                .forEach(secrets::add);
+
+        List<String> publicKeys = new ArrayList<>();
+        if (!isBlank(properties.getPublicKey())) {
+            publicKeys.add(properties.getPublicKey());
+        }
+        properties.getPreviousPublicKeys().stream()
+                .filter(key -> !isBlank(key))
+                .forEach(publicKeys::add);
+
+        if (algorithm == SignatureAlgorithm.HS256 && secrets.isEmpty()) {
+            throw new IllegalStateException("jwt.secret is required for HS256");
+        }
+        if (algorithm != SignatureAlgorithm.HS256 && (isBlank(properties.getPrivateKey()) || isBlank(properties.getPublicKey()))) {
+            throw new IllegalStateException("jwt.private-key and jwt.public-key are required for " + algorithm);
+        }
+
+        return new Source(algorithm, List.copyOf(secrets), properties.getPrivateKey(), List.copyOf(publicKeys));
+    }
+
+    private Key resolve(String kid) {
+        Snapshot current = snapshot;
+        Key key = kid == null ? current.unkeyedKey() : current.keys().get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown key id " + kid);
+        }
+        return key;
+    }
+
+    private static String hmacKid(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record Source(SignatureAlgorithm algorithm, List<String> secrets, String privateKey, List<String> publicKeys) {
+    }
+
+    private record Snapshot(Source source, String activeKid, Key activeKey, Key unkeyedKey, Map<String, Key> keys,
+                            List<Map<String, Object>> jwks) {
+    }
+}
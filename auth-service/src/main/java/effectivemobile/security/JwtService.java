@@ -1,15 +1,13 @@
 package effectivemobile.security;
 
 import effectivemobile.config.JwtProperties;
+import effectivemobile.entity.User;
+import effectivemobile.metrics.AuthMetrics;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
@@ -19,31 +17,71 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class JwtService {
 
+    public static final String EMAIL_CLAIM = "email";
+    public static final String VERIFIED_CLAIM = "verified";
+    public static final String TYPE_CLAIM = "typ";
+    public static final String SESSION_CLAIM = "sid";
+    public static final String ACCESS_TYPE = "access";
+    public static final String REFRESH_TYPE = "refresh";
+
     private final JwtProperties properties;
+    private final JwtKeyRing keyRing;
+    private final AuthMetrics metrics;
 
-    public String generateToken(UUID userId, String email) {
+    // Starts a new session: both tokens share the session id, so revoking it invalidates the pair
+    public TokenPair issueTokens(UUID userId, String email, boolean verified) {
+        UUID sessionId = UUID.randomUUID();
         Instant now = Instant.now();
-        Instant exp = now.plus(properties.getExpirationMinutes(), ChronoUnit.MINUTES);
+        return new TokenPair(
+                generateToken(userId, email, verified, sessionId),
+                sign(userId, email, verified, sessionId, REFRESH_TYPE, now,
+                        now.plus(properties.getRefreshExpirationDays(), ChronoUnit.DAYS)));
+    }
 
-        return Jwts.builder()
-                .setSubject(userId.toString())
-                .claim("email", email)
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(exp))
-                .signWith(getKey(), SignatureAlgorithm.HS256)
-                .compact();
+    public String generateToken(UUID userId, String email, boolean verified, UUID sessionId) {
+        Instant now = Instant.now();
+        return sign(userId, email, verified, sessionId, ACCESS_TYPE, now,
+                now.plus(properties.getExpirationMinutes(), ChronoUnit.MINUTES));
     }
 
-    public UUID extractUserId(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
+    private String sign(UUID userId, String email, boolean verified, UUID sessionId, String type,
+                        Instant issuedAt, Instant expiresAt) {
+        return metrics.timeJwtSign(() -> keyRing.sign(Jwts.builder()
+                        .setSubject(userId.toString())
+                        .claim(EMAIL_CLAIM, email)
+                        .claim(VERIFIED_CLAIM, verified)
+                        .claim(TYPE_CLAIM, type)
+                        .claim(SESSION_CLAIM, sessionId.toString())
+                        .setIssuedAt(Date.from(issuedAt))
+                        .setExpiration(Date.from(expiresAt)))
+                .compact());
+    }
+
+    public Claims parseClaims(String token) {
+        return metrics.timeJwtParse(() -> keyRing.parser()
                 .parseClaimsJws(token)
-                .getBody();
-        return UUID.fromString(claims.getSubject());
+                .getBody());
+    }
+
+    public UUID extractUserId(String token) {
+        return UUID.fromString(parseClaims(token).getSubject());
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
+    }
+
+    // Tokens issued before sessions existed have no session id and cannot be revoked
+    public static UUID sessionId(Claims claims) {
+        String sessionId = claims.get(SESSION_CLAIM, String.class);
+        return sessionId == null ? null : UUID.fromString(sessionId);
     }
 
-    private Key getKey() {
-        return Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8));
+    public User toPrincipal(Claims claims) {
+        User user = new User();
+        user.setId(UUID.fromString(claims.getSubject()));
+        user.setEmail(claims.get(EMAIL_CLAIM, String.class));
+        user.setVerified(Boolean.TRUE.equals(claims.get(VERIFIED_CLAIM, Boolean.class)));
+        return user;
     }
 }
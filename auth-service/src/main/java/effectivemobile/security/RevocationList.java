@@ -0,0 +1,131 @@
+package effectivemobile.security;
+
+import effectivemobile.config.JwtProperties;
+import effectivemobile.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked sessions live in {@code revoked_sessions}; lookups go through a Bloom filter of that table first,
+ * so a session that was never revoked is answered from memory and only filter hits reach the database.
+ * <p>
+ * The filter is rebuilt from the table on a fixed delay, which also picks up revocations made on other
+ * replicas. Sessions revoked here are added to the live filter once the revoking transaction commits, and
+ * re-added after a rebuild that started before that. Adding them earlier would lose them: a rebuild between
+ * the add and the commit swaps in a snapshot that cannot see the row yet.
+ */
+@Component
+@Slf4j
+public class RevocationList {
+
+    private static final String REVOKE_SQL = """
+            INSERT INTO revoked_sessions (session_id, expires_at, revoked_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (session_id) DO NOTHING
+            """;
+
+    private static final String EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM revoked_sessions WHERE session_id = ?)";
+
+    private static final String PURGE_SQL = "DELETE FROM revoked_sessions WHERE expires_at < ?";
+
+    private static final String COUNT_SQL = "SELECT count(*) FROM revoked_sessions";
+
+    private static final String LOAD_SQL = "SELECT session_id FROM revoked_sessions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtProperties.RevocationList properties;
+    private final Counter filtered;
+    private final Counter revoked;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+    private volatile Set<UUID> revokedSinceRebuild = ConcurrentHashMap.newKeySet();
+
+    public RevocationList(JdbcTemplate jdbcTemplate, JwtProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.getRevocationList();
+        this.filter = new BloomFilter(this.properties.getExpectedEntries(), this.properties.getFalsePositiveRate());
+
+        this.filtered = checks(meterRegistry, "filtered");
+        this.revoked = checks(meterRegistry, "revoked");
+        this.falsePositives = checks(meterRegistry, "false_positive");
+    }
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    public boolean isRevoked(UUID sessionId) {
+        if (!filter.mightContain(sessionId)) {
+            filtered.increment();
+            return false;
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class, sessionId))) {
+            revoked.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    public void revoke(UUID sessionId, Instant expiresAt) {
+        jdbcTemplate.update(REVOKE_SQL, sessionId, Timestamp.from(expiresAt), Timestamp.from(Instant.now()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(sessionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(sessionId);
+            }
+        });
+    }
+
+    // The row is committed here, so a rebuild either loads it or starts before this and replays the set
+    private void remember(UUID sessionId) {
+        revokedSinceRebuild.add(sessionId);
+        filter.add(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-list.rebuild-interval-ms:60000}",
+            initialDelayString = "${jwt.revocation-list.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        // Revocations from here on may be missing from the snapshot below, so they are replayed after the swap
+        revokedSinceRebuild = ConcurrentHashMap.newKeySet();
+
+        jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now()));
+        long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+
+        int expected = (int) Math.min(Integer.MAX_VALUE, Math.max(properties.getExpectedEntries(), count * 2));
+        BloomFilter rebuilt = new BloomFilter(expected, properties.getFalsePositiveRate());
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            rebuilt.add(rs.getObject(1, UUID.class));
+        });
+
+        filter = rebuilt;
+        revokedSinceRebuild.forEach(rebuilt::add);
+        log.debug("Revocation filter rebuilt, sessions={}", count);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.revocation.checks")
+                .description("Session revocation lookups by outcome; only revoked and false_positive hit the database")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
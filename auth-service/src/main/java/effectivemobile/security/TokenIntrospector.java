@@ -0,0 +1,118 @@
+package effectivemobile.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import effectivemobile.config.JwtProperties;
+import effectivemobile.dto.TokenIntrospection;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates tokens the way {@link JwtAuthenticationFilter} does (signature, expiry, session revocation, user
+ * still present) and caches the outcome under the token's SHA-256. Active results live until the token
+ * expires but no longer than {@code max-ttl-seconds}; inactive ones for {@code negative-ttl-seconds}.
+ */
+@Component
+public class TokenIntrospector {
+
+    private final JwtService jwtService;
+    private final RevocationList revocationList;
+    private final UserStatusCache userStatusCache;
+    private final Cache<String, TokenIntrospection> cache;
+
+    public TokenIntrospector(JwtService jwtService,
+                             RevocationList revocationList,
+                             UserStatusCache userStatusCache,
+                             JwtProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.revocationList = revocationList;
+        this.userStatusCache = userStatusCache;
+
+        JwtProperties.Introspection introspection = properties.getIntrospection();
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(introspection.getMaxTtlSeconds());
+        long negativeTtlNanos = TimeUnit.SECONDS.toNanos(introspection.getNegativeTtlSeconds());
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(introspection.getCacheMaxSize())
+                .expireAfter(new Expiry<String, TokenIntrospection>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenIntrospection value, long currentTime) {
+                        if (!value.active()) {
+                            return negativeTtlNanos;
+                        }
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                TimeUnit.SECONDS.toMillis(value.expiresAt()) - System.currentTimeMillis());
+                        return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenIntrospection value, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TokenIntrospection value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "token_introspection");
+    }
+
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        return tokens.stream()
+                .map(token -> cache.get(hash(token), key -> validate(token)))
+                .toList();
+    }
+
+    private TokenIntrospection validate(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospection.INACTIVE;
+        }
+
+        UUID userId = UUID.fromString(claims.getSubject());
+        UUID sessionId = JwtService.sessionId(claims);
+        if ((sessionId != null && revocationList.isRevoked(sessionId)) || !userStatusCache.isActive(userId)) {
+            return TokenIntrospection.INACTIVE;
+        }
+
+        return new TokenIntrospection(
+                true,
+                userId,
+                claims.get(JwtService.EMAIL_CLAIM, String.class),
+                claims.get(JwtService.VERIFIED_CLAIM, Boolean.class),
+                JwtService.isRefreshToken(claims) ? JwtService.REFRESH_TYPE : JwtService.ACCESS_TYPE,
+                sessionId,
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant().getEpochSecond(),
+                claims.getExpiration().toInstant().getEpochSecond());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
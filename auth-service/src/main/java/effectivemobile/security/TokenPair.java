@@ -0,0 +1,7 @@
+package effectivemobile.security;
+
+public record TokenPair(
+        String accessToken,
+        String refreshToken
+) {
+}
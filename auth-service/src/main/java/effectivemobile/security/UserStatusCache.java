@@ -0,0 +1,39 @@
+package effectivemobile.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import effectivemobile.config.JwtProperties;
+import effectivemobile.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Component
+public class UserStatusCache {
+
+    private final UserRepository repository;
+    private final boolean enabled;
+    private final Cache<UUID, Boolean> cache;
+
+    public UserStatusCache(UserRepository repository, JwtProperties properties) {
+        JwtProperties.RevocationCheck check = properties.getRevocationCheck();
+        this.repository = repository;
+        this.enabled = check.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(check.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(check.getTtlSeconds()))
+                .build();
+    }
+
+    public boolean isActive(UUID userId) {
+        if (!enabled) {
+            return true;
+        }
+        return cache.get(userId, repository::existsById);
+    }
+
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId);
+    }
+}
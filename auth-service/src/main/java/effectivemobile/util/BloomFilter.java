@@ -0,0 +1,59 @@
+package effectivemobile.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.UUID;
+
+/**
+ * Fixed-size Bloom filter over UUIDs. {@link #add} is safe to call concurrently with lookups: bits are set
+ * with an atomic OR, so a concurrent add is never lost.
+ */
+public class BloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long n = Math.max(1, expectedEntries);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2)));
+
+        this.words = new long[(int) ((m + 63) >>> 6)];
+        this.bits = (long) words.length << 6;
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / n * LN2)));
+    }
+
+    public void add(UUID value) {
+        long h1 = mix(value.getMostSignificantBits() ^ Long.rotateLeft(value.getLeastSignificantBits(), 32));
+        long h2 = mix(value.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            WORDS.getAndBitwiseOr(words, (int) (bit >>> 6), 1L << bit);
+        }
+    }
+
+    public boolean mightContain(UUID value) {
+        long h1 = mix(value.getMostSignificantBits() ^ Long.rotateLeft(value.getLeastSignificantBits(), 32));
+        long h2 = mix(value.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if (((long) WORDS.getAcquire(words, (int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Stafford variant 13 of the SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
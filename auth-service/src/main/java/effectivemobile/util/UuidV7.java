@@ -0,0 +1,48 @@
+package effectivemobile.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): 48 bits of Unix milliseconds, a 12-bit counter in {@code rand_a}
+ * and 62 random bits. The timestamp and counter are advanced together with a CAS, so ids from this JVM are
+ * strictly increasing across threads; if the counter overflows within one millisecond the timestamp is
+ * borrowed from the next one, as the RFC allows.
+ */
+public final class UuidV7 {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 7L << COUNTER_BITS;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private static final AtomicLong LAST = new AtomicLong();
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long stamp = nextStamp(System.currentTimeMillis());
+        long msb = (stamp >>> COUNTER_BITS) << 16 | VERSION | (stamp & ((1L << COUNTER_BITS) - 1));
+        long lsb = VARIANT | (RANDOM.get().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb);
+    }
+
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    // millis << 12 | counter; a new millisecond restarts the counter at zero
+    private static long nextStamp(long millis) {
+        long candidate = millis << COUNTER_BITS;
+        while (true) {
+            long last = LAST.get();
+            long next = Math.max(candidate, last + 1);
+            if (LAST.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
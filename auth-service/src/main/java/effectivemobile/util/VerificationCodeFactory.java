@@ -2,29 +2,94 @@ package effectivemobile.util;
 
 import effectivemobile.config.VerificationProperties;
 import effectivemobile.entity.VerificationCode;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
+/**
+ * Codes are drawn from a per-thread {@link SecureRandom} that is read in bulk into a buffer, so request
+ * threads neither contend on one generator nor pay a call per digit. Each random byte maps to one alphabet
+ * character; bytes at or above the largest multiple of the alphabet size are discarded so every character
+ * stays equally likely.
+ */
 @Component
-@RequiredArgsConstructor
 public class VerificationCodeFactory {
 
+    private static final int MIN_LENGTH = 4;
+    private static final int MAX_LENGTH = 16;
+    private static final int BUFFER_SIZE = 512;
+
     private final VerificationProperties properties;
-    private final SecureRandom random = new SecureRandom();
+    private final char[] alphabet;
+    private final int length;
+    private final int acceptBelow;
+    private final ThreadLocal<RandomBuffer> buffers = ThreadLocal.withInitial(RandomBuffer::new);
 
-    public VerificationCode create(String email) {
-        String code = String.format("%06d", random.nextInt(1_000_000));
+    public VerificationCodeFactory(VerificationProperties properties) {
+        this.properties = properties;
+        this.alphabet = validAlphabet(properties.getCodeAlphabet());
+        this.length = properties.getCodeLength();
+        this.acceptBelow = 256 - 256 % alphabet.length;
+
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("verification.code-length must be between " + MIN_LENGTH
+                    + " and " + MAX_LENGTH + ", got " + length);
+        }
+    }
 
+    public VerificationCode create(String email) {
         VerificationCode verificationCode = new VerificationCode();
         verificationCode.setEmail(email);
-        verificationCode.setCode(code);
+        verificationCode.setCode(nextCode());
         verificationCode.setExpiresAt(Instant.now().plus(properties.getTtlMinutes(), ChronoUnit.MINUTES));
         verificationCode.setUsed(false);
 
         return verificationCode;
     }
+
+    String nextCode() {
+        RandomBuffer buffer = buffers.get();
+        char[] code = new char[length];
+        for (int i = 0; i < length; ) {
+            int value = buffer.next();
+            if (value < acceptBelow) {
+                code[i++] = alphabet[value % alphabet.length];
+            }
+        }
+        return new String(code);
+    }
+
+    private static char[] validAlphabet(String value) {
+        if (value == null || value.length() < 2) {
+            throw new IllegalArgumentException("verification.code-alphabet must have at least 2 characters");
+        }
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+                throw new IllegalArgumentException("verification.code-alphabet may only contain letters and digits");
+            }
+            if (value.indexOf(c) != i) {
+                throw new IllegalArgumentException("verification.code-alphabet has a repeated character: " + c);
+            }
+        }
+        return chars;
+    }
+
+    private static final class RandomBuffer {
+
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private int position = BUFFER_SIZE;
+
+        int next() {
+            if (position == BUFFER_SIZE) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            return bytes[position++] & 0xFF;
+        }
+    }
 }
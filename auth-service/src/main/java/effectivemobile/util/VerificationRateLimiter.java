@@ -2,31 +2,65 @@ package effectivemobile.util;
 
 import effectivemobile.config.VerificationProperties;
 import effectivemobile.exception.TooManyRequestsException;
-import effectivemobile.repository.VerificationCodeRepository;
+import effectivemobile.ratelimit.RateLimitStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @RequiredArgsConstructor
 public class VerificationRateLimiter {
 
-    private final VerificationCodeRepository repository;
+    private static final String KEY_PREFIX = "verification:";
+    private static final String BULK_KEY_PREFIX = "bulk-register:";
+    private static final long MILLIS_PER_SECOND = TimeUnit.SECONDS.toMillis(1);
+
+    private final RateLimitStore store;
     private final VerificationProperties properties;
 
     public void checkRateLimit(String email) {
-        repository.findTopByEmailOrderByCreatedAtDesc(email)
-                .ifPresent(last -> {
-                    Instant next = last.getCreatedAt()
-                            .plus(properties.getRateLimitSeconds(), ChronoUnit.SECONDS);
-
-                    if (Instant.now().isBefore(next)) {
-                        long left = Duration.between(Instant.now(), next).toSeconds();
-                        throw new TooManyRequestsException("Wait " + left + " seconds");
-                    }
-                });
+        rejectIfWaiting(store.tryConsume(KEY_PREFIX + email));
+    }
+
+    /**
+     * {@link #checkRateLimit(String)} for many emails with one call to the store.
+     *
+     * @return the rejection message for each email that is rate limited; the rest have been charged a token
+     */
+    public Map<String, String> checkRateLimits(Collection<String> emails) {
+        Map<String, Duration> waits = store.tryConsume(emails.stream().map(email -> KEY_PREFIX + email).toList());
+        Map<String, String> rejected = new HashMap<>();
+        waits.forEach((key, wait) -> {
+            if (!wait.isZero()) {
+                rejected.put(key.substring(KEY_PREFIX.length()), waitMessage(wait));
+            }
+        });
+        return rejected;
+    }
+
+    // Every email in a bulk request costs the caller one token, on top of the per-email limit
+    public void checkBulkRateLimit(String caller, int emails) {
+        int burst = properties.getBulkRateLimitBurst();
+        if (emails > burst) {
+            throw new TooManyRequestsException("At most " + burst + " emails per request");
+        }
+        Duration interval = Duration.ofHours(1).dividedBy(properties.getBulkRateLimitEmailsPerHour());
+        rejectIfWaiting(store.tryConsume(BULK_KEY_PREFIX + caller, emails, interval, burst));
+    }
+
+    private static void rejectIfWaiting(Duration wait) {
+        if (!wait.isZero()) {
+            throw new TooManyRequestsException(waitMessage(wait));
+        }
+    }
+
+    private static String waitMessage(Duration wait) {
+        long left = (wait.toMillis() + MILLIS_PER_SECOND - 1) / MILLIS_PER_SECOND;
+        return "Wait " + left + " seconds";
     }
 }
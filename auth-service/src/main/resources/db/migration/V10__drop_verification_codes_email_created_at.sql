@@ -0,0 +1,3 @@
+-- Its only query (latest code per email) lost its caller when rate limiting moved to rate_limits;
+-- redemption uses idx_verification_codes_email_code_unused. Dropping it on the parent drops it on every partition.
+DROP INDEX IF EXISTS idx_verification_codes_email_created_at;
@@ -0,0 +1,7 @@
+CREATE TABLE rate_limits(
+    rate_key VARCHAR(320) PRIMARY KEY,
+    tat_ms BIGINT NOT NULL,
+    granted BOOLEAN NOT NULL
+);
+
+CREATE INDEX idx_rate_limits_tat_ms ON rate_limits (tat_ms);
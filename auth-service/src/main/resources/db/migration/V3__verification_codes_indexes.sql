@@ -0,0 +1,5 @@
+-- findTopByEmailOrderByCreatedAtDesc
+CREATE INDEX idx_verification_codes_email_created_at ON verification_codes (email, created_at DESC);
+
+-- findByEmailAndCodeAndUsedFalse, only unused codes are ever looked up
+CREATE INDEX idx_verification_codes_email_code_unused ON verification_codes (email, code) WHERE used = false;
@@ -0,0 +1,35 @@
+ALTER TABLE verification_codes RENAME TO verification_codes_legacy;
+ALTER TABLE verification_codes_legacy RENAME CONSTRAINT verification_codes_pkey TO verification_codes_legacy_pkey;
+ALTER INDEX idx_verification_codes_email_created_at RENAME TO idx_verification_codes_legacy_email_created_at;
+ALTER INDEX idx_verification_codes_email_code_unused RENAME TO idx_verification_codes_legacy_email_code_unused;
+
+CREATE TABLE verification_codes(
+    id UUID NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    code VARCHAR(6) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    used BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_verification_codes_email_created_at ON verification_codes (email, created_at DESC);
+CREATE INDEX idx_verification_codes_email_code_unused ON verification_codes (email, code) WHERE used = false;
+
+-- Catches rows outside of the daily partitions maintained by VerificationCodeMaintenance
+CREATE TABLE verification_codes_default PARTITION OF verification_codes DEFAULT;
+
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN SELECT generate_series(0, 3) + (now() AT TIME ZONE 'UTC')::date LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF verification_codes FOR VALUES FROM (%L) TO (%L)',
+                       'verification_codes_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+INSERT INTO verification_codes (id, email, code, expires_at, used, created_at)
+SELECT id, email, code, expires_at, used, created_at FROM verification_codes_legacy;
+
+DROP TABLE verification_codes_legacy;
@@ -0,0 +1,9 @@
+CREATE SEQUENCE outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE outbox(
+    id BIGINT PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
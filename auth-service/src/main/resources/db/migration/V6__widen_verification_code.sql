@@ -0,0 +1,2 @@
+-- Widening a VARCHAR is a catalog-only change, no table or index rewrite
+ALTER TABLE verification_codes ALTER COLUMN code TYPE VARCHAR(16);
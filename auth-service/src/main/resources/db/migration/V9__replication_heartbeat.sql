@@ -0,0 +1,7 @@
+-- Written on the primary by every auth-service instance; replicas measure their lag by how old their copy is
+CREATE TABLE replication_heartbeat(
+    id SMALLINT PRIMARY KEY,
+    beat_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, now());
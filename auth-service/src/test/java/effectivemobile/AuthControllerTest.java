@@ -3,16 +3,21 @@ package effectivemobile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import effectivemobile.config.SecurityConfig;
 import effectivemobile.controller.AuthController;
+import effectivemobile.dto.RefreshRequest;
 import effectivemobile.dto.RegisterRequest;
 import effectivemobile.dto.UserDto;
 import effectivemobile.dto.VerifyRequest;
 import effectivemobile.dto.mapper.UserMapper;
 import effectivemobile.entity.User;
 import effectivemobile.exception.ExpiredVerificationCodeException;
+import effectivemobile.exception.InvalidTokenException;
 import effectivemobile.exception.InvalidVerificationCodeException;
 import effectivemobile.exception.TooManyRequestsException;
 import effectivemobile.exception.UserNotFoundException;
+import effectivemobile.logging.RequestLogSampler;
+import effectivemobile.metrics.AuthMetrics;
 import effectivemobile.security.JwtAuthenticationFilter;
+import effectivemobile.security.TokenPair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -53,6 +58,12 @@ class AuthControllerTest {
     @MockBean
     private UserMapper userMapper;
 
+    @MockBean
+    private AuthMetrics authMetrics;
+
+    @MockBean
+    private RequestLogSampler requestLogSampler;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -114,13 +125,37 @@ class AuthControllerTest {
     void verify_returnsToken_onSuccess() throws Exception {
         VerifyRequest request = new VerifyRequest(email, code);
 
-        when(authService.verify(email, code)).thenReturn("TOKEN");
+        when(authService.verify(email, code)).thenReturn(new TokenPair("TOKEN", "REFRESH"));
 
         mockMvc.perform(post("/auth/verify")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.token").value("TOKEN"));
+                .andExpect(jsonPath("$.token").value("TOKEN"))
+                .andExpect(jsonPath("$.refreshToken").value("REFRESH"));
+    }
+
+    @Test
+    void refresh_returnsNewAccessToken() throws Exception {
+        when(authService.refresh("REFRESH")).thenReturn(new TokenPair("NEW_TOKEN", "REFRESH"));
+
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("REFRESH"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("NEW_TOKEN"))
+                .andExpect(jsonPath("$.refreshToken").value("REFRESH"));
+    }
+
+    @Test
+    void refresh_returnsUnauthorized_whenTokenRevoked() throws Exception {
+        when(authService.refresh(anyString())).thenThrow(new InvalidTokenException("Refresh token revoked"));
+
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("REFRESH"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("INVALID_TOKEN"));
     }
 
     @Test
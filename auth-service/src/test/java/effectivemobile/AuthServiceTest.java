@@ -1,30 +1,56 @@
 package effectivemobile;
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import effectivemobile.cache.UserCache;
+import effectivemobile.dto.BulkRegisterResult;
 import effectivemobile.entity.User;
 import effectivemobile.entity.VerificationCode;
 import effectivemobile.exception.ExpiredVerificationCodeException;
+import effectivemobile.exception.InvalidTokenException;
 import effectivemobile.exception.InvalidVerificationCodeException;
 import effectivemobile.exception.TooManyRequestsException;
 import effectivemobile.exception.UserNotFoundException;
-import effectivemobile.kafka.KafkaProducerService;
+import effectivemobile.logging.RequestLogSampler;
+import effectivemobile.metrics.AuthMetrics;
+import effectivemobile.outbox.OutboxService;
+import effectivemobile.repository.CodeRedemption;
 import effectivemobile.repository.UserRepository;
 import effectivemobile.repository.VerificationCodeRepository;
 import effectivemobile.security.JwtService;
+import effectivemobile.security.RevocationList;
+import effectivemobile.security.TokenPair;
+import effectivemobile.security.UserStatusCache;
 import effectivemobile.util.VerificationCodeFactory;
 import effectivemobile.util.VerificationRateLimiter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,7 +72,27 @@ class AuthServiceTest {
     private JwtService jwtService;
 
     @Mock
-    private KafkaProducerService kafkaProducerService;
+    private OutboxService outboxService;
+
+    @Mock
+    private RequestLogSampler logSampler;
+
+    @Mock
+    private RevocationList revocationList;
+
+    @Mock
+    private UserStatusCache userStatusCache;
+
+    @Mock
+    private UserCache userCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AuthMetrics metrics = new AuthMetrics(meterRegistry);
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private AuthService authService;
@@ -72,7 +118,7 @@ class AuthServiceTest {
 
     @Test
     void register_createNewUser_whenUserDoesNotExists() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userCache.findByEmail(email)).thenReturn(Optional.empty());
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(verificationCodeFactory.create(email)).thenReturn(verificationCode);
 
@@ -84,12 +130,12 @@ class AuthServiceTest {
         verify(verificationRateLimiter).checkRateLimit(email);
         verify(userRepository).save(any(User.class));
         verify(verificationCodeRepository).save(verificationCode);
-        verify(kafkaProducerService).sendVerificationCode(email, code);
+        verify(outboxService).enqueueVerificationCode(email, code);
     }
 
     @Test
     void register_reusesExistingUser_whenUserExists() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(userCache.findByEmail(email)).thenReturn(Optional.of(user));
         when(verificationCodeFactory.create(email)).thenReturn(verificationCode);
 
         User result = authService.register(email);
@@ -98,7 +144,20 @@ class AuthServiceTest {
 
         verify(userRepository, never()).save(any());
         verify(verificationCodeRepository).save(verificationCode);
-        verify(kafkaProducerService).sendVerificationCode(email, code);
+        verify(outboxService).enqueueVerificationCode(email, code);
+    }
+
+    @Test
+    void register_recordsEveryPhase() {
+        when(userCache.findByEmail(email)).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(verificationCodeFactory.create(email)).thenReturn(verificationCode);
+
+        authService.register(email);
+
+        for (String phase : new String[]{"rate_limit", "user_lookup", "user_insert", "code_insert", "outbox_enqueue"}) {
+            assertEquals(1, meterRegistry.get(AuthMetrics.REGISTER_TIMER).tag("phase", phase).timer().count(), phase);
+        }
     }
 
     @Test
@@ -109,32 +168,87 @@ class AuthServiceTest {
         assertThrows(TooManyRequestsException.class,
                 () -> authService.register(email));
 
-        verify(userRepository, never()).findByEmail(any());
+        verify(userCache, never()).findByEmail(any());
         verify(verificationCodeRepository, never()).save(any());
-        verify(kafkaProducerService, never()).sendVerificationCode(any(), any());
+        verify(outboxService, never()).enqueueVerificationCode(any(), any());
+    }
+
+    @Test
+    void registerBulk_reportsPerEmailStatusAndBatchesWrites() {
+        String fresh = "fresh@yandex.ru";
+        String limited = "limited@yandex.ru";
+        UUID freshId = UUID.randomUUID();
+        VerificationCode freshCode = new VerificationCode();
+        freshCode.setEmail(fresh);
+        freshCode.setCode("654321");
+
+        when(verificationRateLimiter.checkRateLimits(List.of(email, fresh, limited))).thenReturn(Map.of(limited, "Wait!!"));
+        when(userRepository.findAllByEmailIn(List.of(email, fresh))).thenReturn(List.of(user));
+        when(userRepository.insertIfAbsent(eq(List.of(fresh)), any(Instant.class))).thenReturn(Map.of(fresh, freshId));
+        when(verificationCodeFactory.create(email)).thenReturn(verificationCode);
+        when(verificationCodeFactory.create(fresh)).thenReturn(freshCode);
+
+        List<BulkRegisterResult> results = authService.registerBulk("crm",
+                List.of(email, "not-an-email", fresh, limited, email));
+
+        assertEquals(List.of(
+                new BulkRegisterResult(email, BulkRegisterResult.Status.EXISTING, user.getId(), null),
+                new BulkRegisterResult("not-an-email", BulkRegisterResult.Status.INVALID_EMAIL, null, null),
+                new BulkRegisterResult(fresh, BulkRegisterResult.Status.CREATED, freshId, null),
+                new BulkRegisterResult(limited, BulkRegisterResult.Status.RATE_LIMITED, null, "Wait!!"),
+                new BulkRegisterResult(email, BulkRegisterResult.Status.DUPLICATE, null, null)), results);
+
+        verify(verificationRateLimiter).checkBulkRateLimit("crm", 5);
+        verify(verificationRateLimiter, never()).checkRateLimit(any());
+        verify(userCache, never()).findByEmail(any());
+        verify(userRepository, never()).saveAll(anyList());
+        verify(verificationCodeRepository).saveAll(List.of(verificationCode, freshCode));
+        verify(outboxService).enqueueVerificationCodes(Map.of(email, code, fresh, "654321"));
+        verify(outboxService, never()).enqueueVerificationCode(any(), any());
+    }
+
+    @Test
+    void registerBulk_reportsExisting_whenEmailRegisteredConcurrently() {
+        when(userRepository.findAllByEmailIn(List.of(email))).thenReturn(List.of()).thenReturn(List.of(user));
+        when(userRepository.insertIfAbsent(eq(List.of(email)), any(Instant.class))).thenReturn(Map.of());
+        when(verificationCodeFactory.create(email)).thenReturn(verificationCode);
+
+        List<BulkRegisterResult> results = authService.registerBulk("crm", List.of(email));
+
+        assertEquals(List.of(new BulkRegisterResult(email, BulkRegisterResult.Status.EXISTING, user.getId(), null)), results);
+        verify(verificationCodeRepository).saveAll(List.of(verificationCode));
+    }
+
+    @Test
+    void registerBulk_writesNothing_whenCallerBudgetIsSpent() {
+        doThrow(new TooManyRequestsException("Wait 5 seconds"))
+                .when(verificationRateLimiter).checkBulkRateLimit("crm", 1);
+
+        assertThrows(TooManyRequestsException.class, () -> authService.registerBulk("crm", List.of(email)));
+
+        verify(verificationRateLimiter, never()).checkRateLimits(any());
+        verifyNoInteractions(userRepository, verificationCodeRepository, outboxService);
     }
 
     @Test
     void verify_returnsToken_onSuccess() {
-        when(verificationCodeRepository.findByEmailAndCodeAndUsedFalse(email, code))
-                .thenReturn(Optional.of(verificationCode));
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(jwtService.generateToken(user.getId(), email)).thenReturn("TOKEN");
+        when(verificationCodeRepository.redeem(eq(email), eq(code), any(Instant.class)))
+                .thenReturn(new CodeRedemption(CodeRedemption.Status.REDEEMED, user.getId(), email));
+        TokenPair tokens = new TokenPair("TOKEN", "REFRESH");
+        when(jwtService.issueTokens(user.getId(), email, true)).thenReturn(tokens);
 
-        String token = authService.verify(email, code);
+        assertSame(tokens, authService.verify(email, code));
 
-        assertEquals("TOKEN", token);
-        assertTrue(verificationCode.isUsed());
-        assertTrue(user.isVerified());
+        verify(userCache).userChanged(user.getId(), email);
 
-        verify(verificationCodeRepository).save(verificationCode);
-        verify(userRepository).save(user);
+        verify(verificationCodeRepository, never()).save(any());
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     void verify_throwsInvalidCode_whenCodeNotFound() {
-        when(verificationCodeRepository.findByEmailAndCodeAndUsedFalse(email, code))
-                .thenReturn(Optional.empty());
+        when(verificationCodeRepository.redeem(eq(email), eq(code), any(Instant.class)))
+                .thenReturn(new CodeRedemption(CodeRedemption.Status.INVALID, null, email));
 
         assertThrows(InvalidVerificationCodeException.class,
                 () -> authService.verify(email, code));
@@ -142,9 +256,8 @@ class AuthServiceTest {
 
     @Test
     void verify_throwsExpiredCode_whenCodeExpired() {
-        verificationCode.setExpiresAt(Instant.now().minusSeconds(10));
-        when(verificationCodeRepository.findByEmailAndCodeAndUsedFalse(email, code))
-                .thenReturn(Optional.of(verificationCode));
+        when(verificationCodeRepository.redeem(eq(email), eq(code), any(Instant.class)))
+                .thenReturn(new CodeRedemption(CodeRedemption.Status.EXPIRED, null, email));
 
         assertThrows(ExpiredVerificationCodeException.class,
                 () -> authService.verify(email, code));
@@ -152,11 +265,124 @@ class AuthServiceTest {
 
     @Test
     void verify_throwsUserNotFound_whenUserMissing() {
-        when(verificationCodeRepository.findByEmailAndCodeAndUsedFalse(email, code))
-                .thenReturn(Optional.of(verificationCode));
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(verificationCodeRepository.redeem(eq(email), eq(code), any(Instant.class)))
+                .thenReturn(new CodeRedemption(CodeRedemption.Status.USER_NOT_FOUND, null, email));
 
         assertThrows(UserNotFoundException.class,
                 () -> authService.verify(email, code));
     }
+
+    @Test
+    void verify_logsSampledEvents_withCodeAndEmailMasked() {
+        when(logSampler.sample()).thenReturn(true);
+        when(logSampler.rate()).thenReturn(1.0);
+        when(verificationCodeRepository.redeem(eq(email), eq(code), any(Instant.class)))
+                .thenReturn(new CodeRedemption(CodeRedemption.Status.INVALID, null, email))
+                .thenReturn(new CodeRedemption(CodeRedemption.Status.REDEEMED, user.getId(), email));
+        when(jwtService.issueTokens(user.getId(), email, true)).thenReturn(new TokenPair("TOKEN", "REFRESH"));
+
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        Logger logger = (Logger) LoggerFactory.getLogger(AuthService.class);
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            assertThrows(InvalidVerificationCodeException.class, () -> authService.verify(email, code));
+            authService.verify(email, code);
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        assertEquals(2, appender.list.size());
+        Map<String, Object> rejected = keyValues(appender.list.get(0));
+        assertEquals("verify_rejected", rejected.get("event"));
+        assertEquals("t***@yandex.ru", rejected.get("email"));
+        assertEquals("******", rejected.get("code"));
+        assertEquals(1.0, rejected.get("sampleRate"));
+        assertEquals("t***@yandex.ru", keyValues(appender.list.get(1)).get("email"));
+        appender.list.forEach(event -> {
+            assertFalse(event.getFormattedMessage().contains(email));
+            assertFalse(event.getKeyValuePairs().stream().anyMatch(pair ->
+                    email.equals(pair.value) || code.equals(pair.value)));
+        });
+    }
+
+    @Test
+    void verify_logsNothing_whenNotSampled() {
+        when(verificationCodeRepository.redeem(eq(email), eq(code), any(Instant.class)))
+                .thenReturn(new CodeRedemption(CodeRedemption.Status.INVALID, null, email));
+
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        Logger logger = (Logger) LoggerFactory.getLogger(AuthService.class);
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            assertThrows(InvalidVerificationCodeException.class, () -> authService.verify(email, code));
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        assertTrue(appender.list.isEmpty());
+        verify(logSampler, never()).rate();
+    }
+
+    @Test
+    void refresh_issuesAccessTokenForSameSession() {
+        UUID sessionId = UUID.randomUUID();
+        when(jwtService.parseClaims("REFRESH")).thenReturn(refreshClaims(sessionId));
+        when(userStatusCache.isActive(user.getId())).thenReturn(true);
+        when(jwtService.generateToken(user.getId(), email, true, sessionId)).thenReturn("TOKEN");
+
+        TokenPair tokens = authService.refresh("REFRESH");
+
+        assertEquals("TOKEN", tokens.accessToken());
+        assertEquals("REFRESH", tokens.refreshToken());
+    }
+
+    @Test
+    void refresh_throwsInvalidToken_whenSessionRevoked() {
+        UUID sessionId = UUID.randomUUID();
+        when(jwtService.parseClaims("REFRESH")).thenReturn(refreshClaims(sessionId));
+        when(revocationList.isRevoked(sessionId)).thenReturn(true);
+
+        assertThrows(InvalidTokenException.class, () -> authService.refresh("REFRESH"));
+
+        verify(jwtService, never()).generateToken(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void refresh_throwsInvalidToken_forAccessToken() {
+        Claims claims = refreshClaims(UUID.randomUUID());
+        claims.put(JwtService.TYPE_CLAIM, JwtService.ACCESS_TYPE);
+        when(jwtService.parseClaims("ACCESS")).thenReturn(claims);
+
+        assertThrows(InvalidTokenException.class, () -> authService.refresh("ACCESS"));
+    }
+
+    @Test
+    void logout_revokesSession() {
+        UUID sessionId = UUID.randomUUID();
+        Claims claims = refreshClaims(sessionId);
+        when(jwtService.parseClaims("REFRESH")).thenReturn(claims);
+
+        authService.logout("REFRESH");
+
+        verify(revocationList).revoke(sessionId, claims.getExpiration().toInstant());
+    }
+
+    private Claims refreshClaims(UUID sessionId) {
+        Claims claims = Jwts.claims();
+        claims.setSubject(user.getId().toString());
+        claims.setExpiration(Date.from(Instant.now().plusSeconds(3600)));
+        claims.put(JwtService.EMAIL_CLAIM, email);
+        claims.put(JwtService.VERIFIED_CLAIM, true);
+        claims.put(JwtService.TYPE_CLAIM, JwtService.REFRESH_TYPE);
+        claims.put(JwtService.SESSION_CLAIM, sessionId.toString());
+        return claims;
+    }
+
+    private static Map<String, Object> keyValues(ILoggingEvent event) {
+        Map<String, Object> values = new HashMap<>();
+        event.getKeyValuePairs().forEach(pair -> values.put(pair.key, pair.value));
+        return values;
+    }
 }
@@ -0,0 +1,44 @@
+package effectivemobile;
+
+import effectivemobile.util.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_neverMissesAddedValues() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID value = UUID.randomUUID();
+            filter.add(value);
+            added.add(value);
+        }
+
+        added.forEach(value -> assertTrue(filter.mightContain(value)));
+    }
+
+    @Test
+    void mightContain_staysNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID());
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < probes * 0.02, "falsePositives=" + falsePositives);
+    }
+}
@@ -0,0 +1,121 @@
+package effectivemobile;
+
+import effectivemobile.cache.UserCache;
+import effectivemobile.config.JwtProperties;
+import effectivemobile.config.SecurityConfig;
+import effectivemobile.config.ServiceAuthProperties;
+import effectivemobile.controller.AuthController;
+import effectivemobile.dto.BulkRegisterResult;
+import effectivemobile.dto.mapper.UserMapper;
+import effectivemobile.exception.TooManyRequestsException;
+import effectivemobile.logging.RequestLogSampler;
+import effectivemobile.metrics.AuthMetrics;
+import effectivemobile.security.JwtService;
+import effectivemobile.security.RevocationList;
+import effectivemobile.security.UserStatusCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = AuthController.class, properties = {
+        "service-auth.clients[0].name=crm",
+        "service-auth.clients[0].secret={noop}crm-secret",
+        "service-auth.clients[0].roles=OPERATOR",
+        "service-auth.clients[1].name=gateway",
+        "service-auth.clients[1].secret={noop}gateway-secret",
+        "service-auth.clients[1].roles=SERVICE"
+})
+@Import({SecurityConfig.class, ServiceAuthProperties.class})
+class BulkRegisterSecurityTest {
+
+    private static final String BODY = "{\"emails\":[\"bulk@yandex.ru\"]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AuthService authService;
+    @MockBean
+    private UserMapper userMapper;
+
+    // Dependencies of JwtAuthenticationFilter, which is part of the security chain under test
+    @MockBean
+    private JwtService jwtService;
+    @MockBean
+    private UserCache userCache;
+    @MockBean
+    private UserStatusCache userStatusCache;
+    @MockBean
+    private JwtProperties jwtProperties;
+    @MockBean
+    private AuthMetrics authMetrics;
+    @MockBean
+    private RevocationList revocationList;
+    @MockBean
+    private RequestLogSampler requestLogSampler;
+
+    @Test
+    void registerBulk_returnsUnauthorized_withoutCredentials() throws Exception {
+        mockMvc.perform(post("/auth/register/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void registerBulk_returnsForbidden_withoutOperatorRole() throws Exception {
+        mockMvc.perform(post("/auth/register/bulk")
+                        .header(HttpHeaders.AUTHORIZATION, basic("gateway", "gateway-secret"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void registerBulk_chargesTheAuthenticatedOperator() throws Exception {
+        when(authService.registerBulk("crm", List.of("bulk@yandex.ru"))).thenReturn(List.of(
+                new BulkRegisterResult("bulk@yandex.ru", BulkRegisterResult.Status.RATE_LIMITED, null, "Wait 30 seconds")));
+
+        mockMvc.perform(post("/auth/register/bulk")
+                        .header(HttpHeaders.AUTHORIZATION, basic("crm", "crm-secret"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("RATE_LIMITED"));
+    }
+
+    @Test
+    void registerBulk_returnsTooManyRequests_whenCallerBudgetIsSpent() throws Exception {
+        when(authService.registerBulk("crm", List.of("bulk@yandex.ru")))
+                .thenThrow(new TooManyRequestsException("Wait 5 seconds"));
+
+        mockMvc.perform(post("/auth/register/bulk")
+                        .header(HttpHeaders.AUTHORIZATION, basic("crm", "crm-secret"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private static String basic(String name, String secret) {
+        return "Basic " + Base64.getEncoder().encodeToString((name + ":" + secret).getBytes(StandardCharsets.UTF_8));
+    }
+}
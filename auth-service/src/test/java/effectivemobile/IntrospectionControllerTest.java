@@ -0,0 +1,114 @@
+package effectivemobile;
+
+import effectivemobile.cache.UserCache;
+import effectivemobile.config.JwtProperties;
+import effectivemobile.config.SecurityConfig;
+import effectivemobile.config.ServiceAuthProperties;
+import effectivemobile.controller.IntrospectionController;
+import effectivemobile.dto.TokenIntrospection;
+import effectivemobile.logging.RequestLogSampler;
+import effectivemobile.metrics.AuthMetrics;
+import effectivemobile.security.JwtService;
+import effectivemobile.security.RevocationList;
+import effectivemobile.security.TokenIntrospector;
+import effectivemobile.security.UserStatusCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = IntrospectionController.class, properties = {
+        "service-auth.clients[0].name=gateway",
+        "service-auth.clients[0].secret={noop}gateway-secret",
+        "service-auth.clients[0].roles=SERVICE",
+        "service-auth.clients[1].name=other",
+        "service-auth.clients[1].secret={noop}other-secret",
+        "service-auth.clients[1].roles=OPERATOR"
+})
+@Import({SecurityConfig.class, ServiceAuthProperties.class})
+class IntrospectionControllerTest {
+
+    private static final String BODY = "{\"tokens\":[\"TOKEN\"]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TokenIntrospector introspector;
+
+    // Dependencies of JwtAuthenticationFilter, which is part of the security chain under test
+    @MockBean
+    private JwtService jwtService;
+    @MockBean
+    private UserCache userCache;
+    @MockBean
+    private UserStatusCache userStatusCache;
+    @MockBean
+    private JwtProperties jwtProperties;
+    @MockBean
+    private AuthMetrics authMetrics;
+    @MockBean
+    private RevocationList revocationList;
+    @MockBean
+    private RequestLogSampler requestLogSampler;
+
+    @Test
+    void introspect_returnsUnauthorized_withoutCredentials() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(introspector);
+    }
+
+    @Test
+    void introspect_returnsUnauthorized_withWrongSecret() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, basic("gateway", "wrong"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void introspect_returnsForbidden_withoutServiceRole() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, basic("other", "other-secret"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(introspector);
+    }
+
+    @Test
+    void introspect_returnsResults_forServiceClient() throws Exception {
+        when(introspector.introspect(List.of("TOKEN"))).thenReturn(List.of(TokenIntrospection.INACTIVE));
+
+        mockMvc.perform(post("/auth/introspect")
+                        .header(HttpHeaders.AUTHORIZATION, basic("gateway", "gateway-secret"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].active").value(false));
+    }
+
+    private static String basic(String name, String secret) {
+        return "Basic " + Base64.getEncoder().encodeToString((name + ":" + secret).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package effectivemobile;
+
+import effectivemobile.config.VerificationProperties;
+import effectivemobile.ratelimit.JdbcRateLimitStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcRateLimitStoreTest {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = new NamedParameterJdbcTemplate(TestDatabase.dataSource());
+        jdbcTemplate.update("DELETE FROM rate_limits", Map.of());
+    }
+
+    @Test
+    void tryConsume_rejectsSecondRequest_withRemainingWait() {
+        JdbcRateLimitStore store = store(30, 1);
+
+        assertEquals(Duration.ZERO, store.tryConsume("a@yandex.ru"));
+
+        Duration wait = store.tryConsume("a@yandex.ru");
+        assertTrue(wait.compareTo(Duration.ofSeconds(29)) > 0);
+        assertTrue(wait.compareTo(Duration.ofSeconds(30)) <= 0);
+    }
+
+    @Test
+    void tryConsume_allowsBurst_thenRejects() {
+        JdbcRateLimitStore store = store(30, 2);
+
+        assertEquals(Duration.ZERO, store.tryConsume("b@yandex.ru"));
+        assertEquals(Duration.ZERO, store.tryConsume("b@yandex.ru"));
+        assertFalse(store.tryConsume("b@yandex.ru").isZero());
+    }
+
+    @Test
+    void tryConsume_manyKeys_consumesEachBucketOnce() {
+        JdbcRateLimitStore store = store(30, 1);
+        store.tryConsume("spent@yandex.ru");
+
+        Map<String, Duration> waits = store.tryConsume(List.of("new@yandex.ru", "spent@yandex.ru", "new@yandex.ru"));
+
+        assertEquals(Set.of("new@yandex.ru", "spent@yandex.ru"), waits.keySet());
+        assertEquals(Duration.ZERO, waits.get("new@yandex.ru"));
+        assertTrue(waits.get("spent@yandex.ru").compareTo(Duration.ofSeconds(29)) > 0);
+        assertFalse(store.tryConsume("new@yandex.ru").isZero());
+        assertEquals(Map.of(), store.tryConsume(List.of()));
+    }
+
+    @Test
+    void tryConsume_manyKeys_grantsEachTokenOnce_underConcurrency() throws Exception {
+        JdbcRateLimitStore store = store(30, 1);
+        List<String> keys = List.of("e@yandex.ru", "f@yandex.ru", "g@yandex.ru");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<Map<String, Duration>>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            List<String> order = new ArrayList<>(keys);
+            Collections.rotate(order, i);
+            results.add(executor.submit(() -> store.tryConsume(order)));
+        }
+
+        Map<String, Integer> granted = new HashMap<>();
+        for (Future<Map<String, Duration>> result : results) {
+            result.get().forEach((key, wait) -> granted.merge(key, wait.isZero() ? 1 : 0, Integer::sum));
+        }
+        executor.shutdown();
+
+        assertEquals(Map.of("e@yandex.ru", 1, "f@yandex.ru", 1, "g@yandex.ru", 1), granted);
+    }
+
+    @Test
+    void tryConsume_withCost_takesAllTokensOrNone() {
+        Duration interval = Duration.ofSeconds(1);
+
+        assertEquals(Duration.ZERO, store(30, 1).tryConsume("bulk:e", 7, interval, 10));
+
+        Duration wait = store(30, 1).tryConsume("bulk:e", 5, interval, 10);
+        assertTrue(wait.compareTo(Duration.ofSeconds(1)) > 0);
+        assertTrue(wait.compareTo(Duration.ofSeconds(2)) <= 0);
+        assertEquals(Duration.ZERO, store(30, 1).tryConsume("bulk:e", 3, interval, 10));
+    }
+
+    @Test
+    void tryConsume_grantsExactlyOneToken_underConcurrency() throws Exception {
+        JdbcRateLimitStore store = store(30, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<Duration>> results = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            results.add(executor.submit(() -> store.tryConsume("c@yandex.ru")));
+        }
+
+        int granted = 0;
+        for (Future<Duration> result : results) {
+            if (result.get().isZero()) {
+                granted++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, granted);
+    }
+
+    @Test
+    void purgeIdle_removesFullBuckets() {
+        JdbcRateLimitStore store = store(30, 1);
+        store.tryConsume("d@yandex.ru");
+        jdbcTemplate.update("UPDATE rate_limits SET tat_ms = 0", Map.of());
+
+        store.purgeIdle();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM rate_limits", Map.of(), Long.class));
+    }
+
+    private JdbcRateLimitStore store(int seconds, int burst) {
+        VerificationProperties properties = new VerificationProperties();
+        properties.setRateLimitSeconds(seconds);
+        properties.setRateLimitBurst(burst);
+        return new JdbcRateLimitStore(jdbcTemplate, properties);
+    }
+}
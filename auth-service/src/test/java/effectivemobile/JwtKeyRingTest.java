@@ -0,0 +1,163 @@
+package effectivemobile;
+
+import effectivemobile.config.JwtProperties;
+import effectivemobile.security.JwtKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123";
+
+    @Test
+    void rs256_signsWithPrivateKey_andPublishesMatchingJwk() throws Exception {
+        KeyPair keyPair = rsaKeyPair();
+        JwtKeyRing keyRing = keyRing(asymmetric("RS256", keyPair));
+
+        Jws<Claims> jws = keyRing.parser().parseClaimsJws(sign(keyRing));
+        assertEquals("RS256", jws.getHeader().getAlgorithm());
+
+        List<Map<String, Object>> jwks = keyRing.publishedKeys();
+        assertEquals(1, jwks.size());
+        Map<String, Object> jwk = jwks.get(0);
+        assertEquals(jws.getHeader().getKeyId(), jwk.get("kid"));
+        assertEquals("RSA", jwk.get("kty"));
+
+        // A consumer rebuilding the key from the JWK alone can verify the token
+        PublicKey fromJwk = KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("n"))),
+                new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("e")))));
+        assertEquals(((RSAPublicKey) keyPair.getPublic()).getModulus(), ((RSAPublicKey) fromJwk).getModulus());
+        assertEquals("user", Jwts.parserBuilder().setSigningKey(fromJwk).build()
+                .parseClaimsJws(sign(keyRing)).getBody().getSubject());
+    }
+
+    @Test
+    void es256_signsAndVerifies() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        JwtKeyRing keyRing = keyRing(asymmetric("ES256", generator.generateKeyPair()));
+
+        Jws<Claims> jws = keyRing.parser().parseClaimsJws(sign(keyRing));
+
+        assertEquals("ES256", jws.getHeader().getAlgorithm());
+        assertEquals("P-256", keyRing.publishedKeys().get(0).get("crv"));
+    }
+
+    @Test
+    void switchToRs256_keepsVerifyingHs256Tokens_butPublishesNoSecrets() throws Exception {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        JwtKeyRing hmac = keyRing(properties);
+        String oldToken = sign(hmac);
+        assertTrue(hmac.publishedKeys().isEmpty());
+
+        JwtProperties switched = asymmetric("RS256", rsaKeyPair());
+        switched.setSecret(SECRET);
+        JwtKeyRing keyRing = keyRing(switched);
+
+        assertEquals("user", keyRing.parser().parseClaimsJws(oldToken).getBody().getSubject());
+        assertEquals(1, keyRing.publishedKeys().size());
+    }
+
+    @Test
+    void rotation_rereadsKeyDirectory_publishesPreviousKey_andKeepsVerifyingOldTokens(@TempDir Path directory)
+            throws Exception {
+        KeyPair first = rsaKeyPair();
+        writeKeys(directory, first, List.of());
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm("RS256");
+        properties.setKeyDirectory(directory.toString());
+        JwtKeyRing keyRing = keyRing(properties);
+        String oldToken = sign(keyRing);
+        List<Map<String, Object>> before = keyRing.publishedKeys();
+
+        keyRing.reload();
+        assertSame(before, keyRing.publishedKeys());
+
+        writeKeys(directory, rsaKeyPair(), List.of(first));
+        keyRing.reload();
+
+        assertNotSame(before, keyRing.publishedKeys());
+        assertEquals(2, keyRing.publishedKeys().size());
+        assertEquals("user", keyRing.parser().parseClaimsJws(oldToken).getBody().getSubject());
+        assertNotEquals(keyRing.parser().parseClaimsJws(oldToken).getHeader().getKeyId(),
+                keyRing.parser().parseClaimsJws(sign(keyRing)).getHeader().getKeyId());
+    }
+
+    @Test
+    void keyDirectory_overridesStartupKeys_andLeavesTheRestInPlace(@TempDir Path directory) throws Exception {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        JwtKeyRing keyRing = keyRing(properties);
+        String oldToken = sign(keyRing);
+
+        properties.setKeyDirectory(directory.toString());
+        Files.writeString(directory.resolve("secret"), "next-secret-next-secret-next-secret-0123\n");
+        Files.writeString(directory.resolve("previous-secrets"), SECRET + "\n");
+        keyRing.reload();
+
+        String newToken = sign(keyRing);
+        assertEquals("user", keyRing.parser().parseClaimsJws(oldToken).getBody().getSubject());
+        assertNotEquals(keyRing.parser().parseClaimsJws(oldToken).getHeader().getKeyId(),
+                keyRing.parser().parseClaimsJws(newToken).getHeader().getKeyId());
+        assertEquals(SECRET, properties.getSecret());
+    }
+
+    private static JwtKeyRing keyRing(JwtProperties properties) {
+        JwtKeyRing keyRing = new JwtKeyRing(properties);
+        keyRing.reload();
+        return keyRing;
+    }
+
+    private static String sign(JwtKeyRing keyRing) {
+        return keyRing.sign(Jwts.builder().setSubject("user")).compact();
+    }
+
+    private static JwtProperties asymmetric(String algorithm, KeyPair keyPair) {
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setPrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        properties.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        return properties;
+    }
+
+    private static void writeKeys(Path directory, KeyPair keyPair, List<KeyPair> previous) throws Exception {
+        Files.writeString(directory.resolve("private-key"), pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Files.writeString(directory.resolve("public-key"), pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        Files.writeString(directory.resolve("previous-public-keys"), String.join(",", previous.stream()
+                .map(pair -> pem("PUBLIC KEY", pair.getPublic().getEncoded()))
+                .toList()));
+    }
+
+    private static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,201 @@
+package effectivemobile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.config.OutboxProperties;
+import effectivemobile.kafka.KafkaProducerService;
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.outbox.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private static final String TOPIC = "verification-codes";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final KafkaProducerService producer = mock(KafkaProducerService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.dataSource());
+        jdbcTemplate.update("DELETE FROM outbox");
+        relay = relay();
+    }
+
+    @AfterEach
+    void cleanup() {
+        relay.shutdown();
+        jdbcTemplate.update("DELETE FROM outbox");
+    }
+
+    @Test
+    void drain_sendsRowsInIdOrder_andDeletesAcknowledged() {
+        insert("a@outbox.test");
+        insert("b@outbox.test");
+        insert("c@outbox.test");
+        when(producer.send(eq(TOPIC), any(), any())).thenReturn(acked());
+
+        relay.drain();
+
+        InOrder order = inOrder(producer);
+        order.verify(producer).send(TOPIC, "a@outbox.test", new VerificationMessage("a@outbox.test", "123456"));
+        order.verify(producer).send(TOPIC, "b@outbox.test", new VerificationMessage("b@outbox.test", "123456"));
+        order.verify(producer).send(TOPIC, "c@outbox.test", new VerificationMessage("c@outbox.test", "123456"));
+        assertEquals(List.of(), keys());
+    }
+
+    @Test
+    void drain_releasesUnacknowledgedRows_forTheNextDrain() {
+        insert("a@outbox.test");
+        insert("b@outbox.test");
+        when(producer.send(eq(TOPIC), eq("a@outbox.test"), any())).thenReturn(acked());
+        when(producer.send(eq(TOPIC), eq("b@outbox.test"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(acked());
+
+        relay.drain();
+
+        assertEquals(List.of("b@outbox.test"), keys());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM outbox WHERE claimed_until IS NOT NULL", Long.class));
+
+        relay.drain();
+
+        assertEquals(List.of(), keys());
+        verify(producer, times(2)).send(eq(TOPIC), eq("b@outbox.test"), any());
+    }
+
+    @Test
+    void drain_holdsNoRowLocks_whileWaitingForAcks() throws Exception {
+        insert("a@outbox.test");
+        CompletableFuture<SendResult<String, VerificationMessage>> pending = new CompletableFuture<>();
+        when(producer.send(eq(TOPIC), any(), any())).thenReturn(pending);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> drain = executor.submit(relay::drain);
+            verify(producer, timeout(5_000)).send(eq(TOPIC), eq("a@outbox.test"), any());
+
+            // NOWAIT fails immediately if the waiting worker still held the row lock
+            assertEquals(List.of("a@outbox.test"),
+                    jdbcTemplate.queryForList("SELECT message_key FROM outbox FOR UPDATE NOWAIT", String.class));
+
+            OutboxRelay other = relay();
+            other.drain();
+            other.shutdown();
+            verify(producer, times(1)).send(any(), any(), any());
+
+            pending.complete(null);
+            drain.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of(), keys());
+    }
+
+    @Test
+    void drain_reclaimsRows_onceTheLeaseRunsOut() {
+        insert("expired@outbox.test");
+        insert("leased@outbox.test");
+        jdbcTemplate.update("UPDATE outbox SET claimed_until = now() - interval '1 second' "
+                + "WHERE message_key = 'expired@outbox.test'");
+        jdbcTemplate.update("UPDATE outbox SET claimed_until = now() + interval '1 minute' "
+                + "WHERE message_key = 'leased@outbox.test'");
+        when(producer.send(eq(TOPIC), any(), any())).thenReturn(acked());
+
+        relay.drain();
+
+        verify(producer).send(eq(TOPIC), eq("expired@outbox.test"), any());
+        verify(producer, never()).send(eq(TOPIC), eq("leased@outbox.test"), any());
+        assertEquals(List.of("leased@outbox.test"), keys());
+    }
+
+    @Test
+    void requestDrain_dropsRequests_whenTheDispatchQueueIsFull() {
+        insert("a@outbox.test");
+        CompletableFuture<SendResult<String, VerificationMessage>> pending = new CompletableFuture<>();
+        when(producer.send(eq(TOPIC), any(), any())).thenReturn(pending);
+
+        // One worker busy waiting for the ack, one request queued, the third has nowhere to go
+        relay.requestDrain();
+        verify(producer, timeout(5_000)).send(eq(TOPIC), eq("a@outbox.test"), any());
+        relay.requestDrain();
+        relay.requestDrain();
+
+        assertEquals(1.0, meterRegistry.get("outbox.dispatch.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("outbox.dispatch.queue.depth").gauge().value());
+
+        pending.complete(null);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertEquals(List.of(), keys());
+            assertEquals(0.0, meterRegistry.get("outbox.dispatch.queue.depth").gauge().value());
+        });
+    }
+
+    @Test
+    void disabledRelay_ignoresPollsAndAfterCommitRequests() throws Exception {
+        insert("a@outbox.test");
+        relay.shutdown();
+        relay = relay(false);
+
+        relay.requestDrain();
+        relay.poll();
+
+        Thread.sleep(200);
+        verifyNoInteractions(producer);
+        assertEquals(List.of("a@outbox.test"), keys());
+    }
+
+    private OutboxRelay relay() {
+        return relay(true);
+    }
+
+    private OutboxRelay relay(boolean enabled) {
+        OutboxProperties properties = new OutboxProperties();
+        properties.setEnabled(enabled);
+        properties.setBatchSize(10);
+        properties.setParallelism(1);
+        properties.setSendTimeoutMs(10_000);
+        properties.setDispatchQueueCapacity(1);
+        return new OutboxRelay(jdbcTemplate, producer, objectMapper, properties, meterRegistry);
+    }
+
+    private void insert(String email) {
+        try {
+            jdbcTemplate.update("INSERT INTO outbox (id, topic, message_key, payload, created_at) "
+                            + "VALUES (nextval('outbox_id_seq'), ?, ?, ?, now())",
+                    TOPIC, email, objectMapper.writeValueAsString(new VerificationMessage(email, "123456")));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<String> keys() {
+        return jdbcTemplate.queryForList("SELECT message_key FROM outbox ORDER BY id", String.class);
+    }
+
+    private static CompletableFuture<SendResult<String, VerificationMessage>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
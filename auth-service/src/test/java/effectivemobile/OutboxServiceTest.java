@@ -0,0 +1,79 @@
+package effectivemobile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.config.OutboxProperties;
+import effectivemobile.outbox.OutboxRelay;
+import effectivemobile.outbox.OutboxService;
+import effectivemobile.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// A real transaction on the embedded database drives the commit callbacks; the outbox itself is mocked
+class OutboxServiceTest {
+
+    private final OutboxRepository repository = mock(OutboxRepository.class);
+    private final OutboxRelay relay = mock(OutboxRelay.class);
+    private final OutboxProperties properties = new OutboxProperties();
+    private final TransactionTemplate transaction =
+            new TransactionTemplate(new DataSourceTransactionManager(TestDatabase.dataSource()));
+    private OutboxService service;
+
+    @BeforeEach
+    void setup() {
+        properties.setBatchSize(2);
+        properties.setParallelism(3);
+        service = new OutboxService(repository, relay, properties, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "topic", "verification-codes");
+    }
+
+    @Test
+    void enqueue_requestsDrainOnlyAfterCommit() {
+        transaction.executeWithoutResult(status -> {
+            service.enqueueVerificationCode("user@example.com", "123456");
+            verify(relay, never()).requestDrain();
+        });
+
+        verify(relay, times(1)).requestDrain();
+    }
+
+    @Test
+    void enqueue_requestsNoDrain_whenTheTransactionRollsBack() {
+        transaction.executeWithoutResult(status -> {
+            service.enqueueVerificationCode("user@example.com", "123456");
+            status.setRollbackOnly();
+        });
+
+        verify(relay, never()).requestDrain();
+    }
+
+    @Test
+    void enqueueMany_requestsOneDrainPerBatch_cappedAtParallelism() {
+        transaction.executeWithoutResult(status -> service.enqueueVerificationCodes(Map.of(
+                "a@example.com", "1", "b@example.com", "2", "c@example.com", "3")));
+        verify(relay, times(2)).requestDrain();
+
+        reset(relay);
+        transaction.executeWithoutResult(status -> service.enqueueVerificationCodes(Map.of(
+                "a@example.com", "1", "b@example.com", "2", "c@example.com", "3", "d@example.com", "4",
+                "e@example.com", "5", "f@example.com", "6", "g@example.com", "7")));
+        verify(relay, times(3)).requestDrain();
+        verify(repository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void enqueue_leavesTheOutboxToThePoll_whenDispatchOnCommitIsOff() {
+        properties.setDispatchOnCommit(false);
+
+        transaction.executeWithoutResult(status -> service.enqueueVerificationCode("user@example.com", "123456"));
+
+        verify(relay, never()).requestDrain();
+    }
+}
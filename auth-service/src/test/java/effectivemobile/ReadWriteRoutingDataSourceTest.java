@@ -0,0 +1,175 @@
+package effectivemobile;
+
+import com.zaxxer.hikari.HikariDataSource;
+import effectivemobile.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two unrelated embedded databases stand in for the primary and a replica; each one knows its own name
+class ReadWriteRoutingDataSourceTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmbeddedPostgres primary;
+    private EmbeddedPostgres replica;
+    private ReadWriteRoutingDataSource routing;
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setup() {
+        primary = TestDatabase.start();
+        replica = TestDatabase.start();
+        name(primary, "primary");
+        name(replica, "replica");
+
+        routing(5_000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pools.forEach(HikariDataSource::close);
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactions_goToReplica() {
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+        assertEquals(1.0, meterRegistry.get("datasource.routing").tag("route", "read_replica").counter().count());
+    }
+
+    @Test
+    void writesAndNonTransactionalWork_goToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> whoAmI()));
+        assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void readOnlyTransactions_fallBackToPrimary_whenReplicaUnreachable() throws IOException {
+        replica.close();
+        routing.checkReplicas();
+
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+        assertEquals(0.0, meterRegistry.get("datasource.replica.usable").tag("replica", "replica-0").gauge().value());
+    }
+
+    @Test
+    void readOnlyTransactions_fallBackToPrimary_whenReplicaLagsTooFar() {
+        routing(-1);
+
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+    }
+
+    // A standby cut off from the primary has replayed all it received, but its heartbeat copy stops advancing
+    @Test
+    void readOnlyTransactions_fallBackToPrimary_whenReplicaStopsReceivingHeartbeats() {
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+
+        new JdbcTemplate(replica.getPostgresDatabase())
+                .update("UPDATE replication_heartbeat SET beat_at = now() - interval '1 minute'");
+        routing.checkReplicas();
+
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+        assertEquals(0.0, meterRegistry.get("datasource.replica.usable").tag("replica", "replica-0").gauge().value());
+        assertTrue(meterRegistry.get("datasource.replica.lag").tag("replica", "replica-0").gauge().value() >= 60_000);
+    }
+
+    @Test
+    void checkReplicas_stampsHeartbeatOnPrimary() {
+        JdbcTemplate primaryTemplate = new JdbcTemplate(primary.getPostgresDatabase());
+        primaryTemplate.update("UPDATE replication_heartbeat SET beat_at = now() - interval '1 hour'");
+
+        routing.checkReplicas();
+
+        assertEquals(Boolean.TRUE, primaryTemplate.queryForObject(
+                "SELECT beat_at > now() - interval '1 minute' FROM replication_heartbeat", Boolean.class));
+    }
+
+    // JpaTransactionManager hands Hibernate the connection before the read-only flag is published, like the JDBC one
+    @Test
+    void readOnlyJpaTransactions_goToReplica() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan("effectivemobile.entity");
+        factory.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factory.getObject();
+        try {
+            TransactionTemplate jpaReadOnly = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+            jpaReadOnly.setReadOnly(true);
+            TransactionTemplate jpaReadWrite = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+            assertEquals("replica", jpaReadOnly.execute(status -> whoAmI(entityManagerFactory)));
+            assertEquals("primary", jpaReadWrite.execute(status -> whoAmI(entityManagerFactory)));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private void routing(long maxLagMs) {
+        meterRegistry.clear();
+        routing = new ReadWriteRoutingDataSource(pool("primary", primary), List.of(pool("replica-0", replica)),
+                maxLagMs, meterRegistry);
+        routing.afterPropertiesSet();
+        routing.checkReplicas();
+
+        dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private static String whoAmI(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        return (String) entityManager.createNativeQuery("SELECT name FROM whoami").getSingleResult();
+    }
+
+    private static void name(EmbeddedPostgres postgres, String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("CREATE TABLE whoami (name TEXT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO whoami (name) VALUES (?)", name);
+        // Stands in for the replicated heartbeat row: each database starts with a fresh one
+        jdbcTemplate.execute("CREATE TABLE replication_heartbeat (id SMALLINT PRIMARY KEY, beat_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, now())");
+    }
+
+    private HikariDataSource pool(String name, EmbeddedPostgres postgres) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(postgres.getJdbcUrl("postgres", "postgres"));
+        pool.setUsername("postgres");
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(500);
+        pool.setInitializationFailTimeout(-1);
+        pools.add(pool);
+        return pool;
+    }
+}
@@ -0,0 +1,95 @@
+package effectivemobile;
+
+import com.zaxxer.hikari.HikariDataSource;
+import effectivemobile.config.ReplicaRoutingConfig;
+import effectivemobile.config.ReplicaRoutingProperties;
+import effectivemobile.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingConfigTest {
+
+    private EmbeddedPostgres primary;
+    private EmbeddedPostgres replica;
+    private ApplicationContextRunner contextRunner;
+
+    @BeforeEach
+    void setup() {
+        primary = TestDatabase.start();
+        replica = TestDatabase.start();
+        contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class))
+                .withUserConfiguration(ReplicaRoutingConfig.class, ReplicaRoutingProperties.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "replica-routing.enabled=true",
+                        "replica-routing.replicas[0].url=" + replica.getJdbcUrl("postgres", "postgres"),
+                        "replica-routing.replicas[0].maximum-pool-size=4",
+                        "spring.datasource.url=" + primary.getJdbcUrl("postgres", "postgres"),
+                        "spring.datasource.username=postgres",
+                        "spring.datasource.hikari.maximum-pool-size=3",
+                        "spring.flyway.locations=classpath:db/migration");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void bindsPrimaryHikariSettings_andGivesReplicasTheirOwnPools() {
+        contextRunner.run(context -> {
+            assertInstanceOf(LazyConnectionDataSourceProxy.class, context.getBean(DataSource.class));
+
+            HikariDataSource primaryPool = context.getBean("primaryDataSource", HikariDataSource.class);
+            assertEquals("primary", primaryPool.getPoolName());
+            assertEquals(3, primaryPool.getMaximumPoolSize());
+
+            Map<Object, DataSource> targets = context.getBean(ReadWriteRoutingDataSource.class).getResolvedDataSources();
+            HikariDataSource replicaPool = (HikariDataSource) targets.get("replica-0");
+            assertEquals(4, replicaPool.getMaximumPoolSize());
+            assertTrue(replicaPool.isReadOnly());
+            assertSame(primaryPool, targets.get("primary"));
+        });
+    }
+
+    @Test
+    void runsFlywayOnThePrimaryOnly() {
+        contextRunner.run(context -> {
+            assertNull(context.getStartupFailure());
+            assertTrue(hasTable(primary, "flyway_schema_history"));
+            assertTrue(hasTable(primary, "users"));
+            assertFalse(hasTable(replica, "flyway_schema_history"));
+        });
+    }
+
+    @Test
+    void backsOff_whenRoutingIsDisabled() {
+        contextRunner.withPropertyValues("replica-routing.enabled=false").run(context -> {
+            assertFalse(context.containsBean("readWriteRoutingDataSource"));
+            assertInstanceOf(HikariDataSource.class, context.getBean(DataSource.class));
+        });
+    }
+
+    private static boolean hasTable(EmbeddedPostgres postgres, String table) {
+        return Boolean.TRUE.equals(new JdbcTemplate(postgres.getPostgresDatabase()).queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+}
@@ -0,0 +1,51 @@
+package effectivemobile;
+
+import effectivemobile.config.RequestLoggingProperties;
+import effectivemobile.logging.RequestLogSampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLogSamplerTest {
+
+    @Test
+    void sample_keepsEverything_atFullRate_andNothing_atZero() {
+        assertEquals(10_000, sampled(1.0, 10_000));
+        assertEquals(0, sampled(0.0, 10_000));
+    }
+
+    @Test
+    void sample_keepsRoughlyTheConfiguredShare() {
+        long kept = sampled(0.01, 200_000);
+
+        assertTrue(kept > 1_600 && kept < 2_400, "kept " + kept);
+        assertEquals(0.01, sampler(0.01).rate());
+    }
+
+    @Test
+    void maskCode_hidesEveryCharacter() {
+        assertEquals("******", RequestLogSampler.maskCode("123456"));
+        assertNull(RequestLogSampler.maskCode(null));
+    }
+
+    @Test
+    void maskEmail_keepsFirstCharacterAndDomain() {
+        assertEquals("j***@example.com", RequestLogSampler.maskEmail("john.doe@example.com"));
+        assertEquals("***", RequestLogSampler.maskEmail("@example.com"));
+        assertEquals("***", RequestLogSampler.maskEmail("not-an-email"));
+        assertNull(RequestLogSampler.maskEmail(null));
+    }
+
+    private static long sampled(double rate, int events) {
+        RequestLogSampler sampler = sampler(rate);
+        return IntStream.range(0, events).filter(i -> sampler.sample()).count();
+    }
+
+    private static RequestLogSampler sampler(double rate) {
+        RequestLoggingProperties properties = new RequestLoggingProperties();
+        properties.setSampleRate(rate);
+        return new RequestLogSampler(properties);
+    }
+}
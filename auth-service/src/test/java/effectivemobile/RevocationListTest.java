@@ -0,0 +1,119 @@
+package effectivemobile;
+
+import effectivemobile.config.JwtProperties;
+import effectivemobile.security.RevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationListTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.dataSource());
+        jdbcTemplate.update("DELETE FROM revoked_sessions");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void isRevoked_answersUnknownSessionsWithoutDatabase() {
+        RevocationList revocationList = revocationList();
+        revocationList.rebuild();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(revocationList.isRevoked(UUID.randomUUID()));
+        }
+
+        double filtered = meterRegistry.get("auth.revocation.checks").tag("result", "filtered").counter().count();
+        assertTrue(filtered > 990, "filtered=" + filtered);
+    }
+
+    @Test
+    void revoke_isVisibleLocallyAtOnce_andOnOtherInstancesAfterRebuild() {
+        RevocationList local = revocationList();
+        RevocationList remote = revocationList();
+        local.rebuild();
+        remote.rebuild();
+
+        UUID sessionId = UUID.randomUUID();
+        local.revoke(sessionId, Instant.now().plusSeconds(3600));
+
+        assertTrue(local.isRevoked(sessionId));
+        assertFalse(remote.isRevoked(sessionId));
+
+        remote.rebuild();
+        assertTrue(remote.isRevoked(sessionId));
+    }
+
+    @Test
+    void rebuild_purgesExpiredSessions() {
+        RevocationList revocationList = revocationList();
+        UUID expired = UUID.randomUUID();
+        revocationList.revoke(expired, Instant.now().minusSeconds(1));
+
+        revocationList.rebuild();
+
+        assertFalse(revocationList.isRevoked(expired));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM revoked_sessions", Long.class));
+    }
+
+    // The rebuild runs on another thread while the revoking transaction is still open, so its snapshot misses the row
+    @Test
+    void revoke_survivesRebuildBetweenInsertAndCommit() throws Exception {
+        RevocationList revocationList = revocationList();
+        revocationList.rebuild();
+        UUID sessionId = UUID.randomUUID();
+        ExecutorService rebuilder = Executors.newSingleThreadExecutor();
+        try {
+            transaction().executeWithoutResult(status -> {
+                revocationList.revoke(sessionId, Instant.now().plusSeconds(3600));
+                try {
+                    rebuilder.submit(revocationList::rebuild).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            rebuilder.shutdown();
+        }
+
+        assertTrue(revocationList.isRevoked(sessionId));
+    }
+
+    @Test
+    void revoke_leavesFilterAlone_whenTransactionRollsBack() {
+        RevocationList revocationList = revocationList();
+        revocationList.rebuild();
+        UUID sessionId = UUID.randomUUID();
+
+        transaction().executeWithoutResult(status -> {
+            revocationList.revoke(sessionId, Instant.now().plusSeconds(3600));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(revocationList.isRevoked(sessionId));
+        assertEquals(0.0, meterRegistry.get("auth.revocation.checks").tag("result", "false_positive").counter().count());
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    private RevocationList revocationList() {
+        return new RevocationList(jdbcTemplate, new JwtProperties(), meterRegistry);
+    }
+}
@@ -0,0 +1,99 @@
+package effectivemobile;
+
+import effectivemobile.config.JwtProperties;
+import effectivemobile.dto.TokenIntrospection;
+import effectivemobile.metrics.AuthMetrics;
+import effectivemobile.security.JwtKeyRing;
+import effectivemobile.security.JwtService;
+import effectivemobile.security.RevocationList;
+import effectivemobile.security.TokenIntrospector;
+import effectivemobile.security.TokenPair;
+import effectivemobile.security.UserStatusCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectorTest {
+
+    @Mock
+    private RevocationList revocationList;
+
+    @Mock
+    private UserStatusCache userStatusCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID userId = UUID.randomUUID();
+    private final String email = "test@yandex.ru";
+
+    private JwtService jwtService;
+    private TokenIntrospector introspector;
+
+    @BeforeEach
+    void setup() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("test-secret-test-secret-test-secret-0123");
+        properties.setExpirationMinutes(15);
+
+        JwtKeyRing keyRing = new JwtKeyRing(properties);
+        keyRing.reload();
+        jwtService = new JwtService(properties, keyRing, new AuthMetrics(meterRegistry));
+        introspector = new TokenIntrospector(jwtService, revocationList, userStatusCache, properties, meterRegistry);
+    }
+
+    @Test
+    void introspect_returnsClaims_andServesRepeatsFromCache() {
+        when(userStatusCache.isActive(userId)).thenReturn(true);
+        TokenPair tokens = jwtService.issueTokens(userId, email, true);
+
+        List<TokenIntrospection> results = introspector.introspect(
+                List.of(tokens.accessToken(), tokens.refreshToken(), tokens.accessToken()));
+
+        TokenIntrospection access = results.get(0);
+        assertTrue(access.active());
+        assertEquals(userId, access.userId());
+        assertEquals(email, access.email());
+        assertEquals(JwtService.ACCESS_TYPE, access.tokenType());
+        assertNotNull(access.expiresAt());
+        assertEquals(JwtService.REFRESH_TYPE, results.get(1).tokenType());
+        assertSame(access, results.get(2));
+
+        introspector.introspect(List.of(tokens.accessToken()));
+
+        verify(userStatusCache, times(2)).isActive(userId);
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "token_introspection").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "token_introspection").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void introspect_marksMalformedAndTamperedTokensInactive() {
+        String token = jwtService.issueTokens(userId, email, true).accessToken();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        List<TokenIntrospection> results = introspector.introspect(List.of("not-a-token", tampered));
+
+        assertFalse(results.get(0).active());
+        assertFalse(results.get(1).active());
+        verify(userStatusCache, never()).isActive(any());
+    }
+
+    @Test
+    void introspect_marksRevokedSessionInactive() {
+        TokenPair tokens = jwtService.issueTokens(userId, email, true);
+        when(revocationList.isRevoked(any())).thenReturn(true);
+
+        assertFalse(introspector.introspect(List.of(tokens.accessToken())).get(0).active());
+    }
+}
@@ -0,0 +1,80 @@
+package effectivemobile;
+
+import effectivemobile.repository.UserRepositoryCustomImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserBulkInsertTest {
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private UserRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setup() {
+        dataSource = TestDatabase.dataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new UserRepositoryCustomImpl(jdbcTemplate);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%@bulk.test'");
+    }
+
+    @Test
+    void insertIfAbsent_skipsEmailsThatAlreadyHaveAUser() {
+        jdbcTemplate.update("INSERT INTO users (id, email, verified, created_at, updated_at) "
+                + "VALUES (?, 'old@bulk.test', true, now(), now())", UUID.randomUUID());
+
+        Map<String, UUID> inserted = repository.insertIfAbsent(List.of("old@bulk.test", "new@bulk.test"), Instant.now());
+
+        assertEquals(List.of("new@bulk.test"), List.copyOf(inserted.keySet()));
+        assertEquals(inserted.get("new@bulk.test"),
+                jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'new@bulk.test'", UUID.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT verified FROM users WHERE email = 'old@bulk.test'", Boolean.class));
+    }
+
+    // A single registration of the same email commits while the batch waits on its row lock
+    @Test
+    void insertIfAbsent_skipsEmailRegisteredByConcurrentTransaction() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection concurrent = dataSource.getConnection()) {
+            concurrent.setAutoCommit(false);
+            try (PreparedStatement insert = concurrent.prepareStatement("INSERT INTO users "
+                    + "(id, email, verified, created_at, updated_at) VALUES (?, 'race@bulk.test', false, now(), now())")) {
+                insert.setObject(1, UUID.randomUUID());
+                insert.executeUpdate();
+            }
+
+            Future<Map<String, UUID>> batch = executor.submit(() ->
+                    repository.insertIfAbsent(List.of("race@bulk.test", "calm@bulk.test"), Instant.now()));
+            Thread.sleep(200);
+            assertFalse(batch.isDone());
+
+            concurrent.commit();
+
+            assertEquals(List.of("calm@bulk.test"), List.copyOf(batch.get(10, TimeUnit.SECONDS).keySet()));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE email IN ('race@bulk.test', 'calm@bulk.test')", Long.class));
+    }
+}
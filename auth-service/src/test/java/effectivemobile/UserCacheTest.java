@@ -0,0 +1,130 @@
+package effectivemobile;
+
+import effectivemobile.cache.UserCache;
+import effectivemobile.config.UserCacheProperties;
+import effectivemobile.entity.User;
+import effectivemobile.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCacheProperties properties = new UserCacheProperties();
+    private UserCache userCache;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        userCache = new UserCache(repository, kafkaTemplate, properties, meterRegistry);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("test@yandex.ru");
+        user.setVerified(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userCache.shutdown();
+    }
+
+    @Test
+    void findByEmail_loadsOnceAndServesBothKeysFromCache() {
+        when(repository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        userCache.findByEmail(user.getEmail());
+        User byEmail = userCache.findByEmail(user.getEmail()).orElseThrow();
+        User byId = userCache.findById(user.getId()).orElseThrow();
+
+        assertEquals(user.getId(), byEmail.getId());
+        assertEquals(user.getEmail(), byId.getEmail());
+        assertNotSame(byEmail, byId);
+        verify(repository, times(1)).findByEmail(user.getEmail());
+        verify(repository, never()).findById(any());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounters().stream()
+                .mapToDouble(FunctionCounter::count).sum());
+    }
+
+    @Test
+    void findByEmail_doesNotCacheMisses() {
+        when(repository.findByEmail(user.getEmail())).thenReturn(Optional.empty());
+
+        assertTrue(userCache.findByEmail(user.getEmail()).isEmpty());
+        assertTrue(userCache.findByEmail(user.getEmail()).isEmpty());
+
+        verify(repository, times(2)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    void userChanged_evictsAndPublishesInvalidation() {
+        when(repository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(kafkaTemplate.send(properties.getInvalidationTopic(), user.getId().toString(), user.getEmail()))
+                .thenReturn(new CompletableFuture<>());
+        userCache.findById(user.getId());
+
+        userCache.userChanged(user.getId(), user.getEmail());
+        user.setVerified(true);
+
+        assertTrue(userCache.findById(user.getId()).orElseThrow().isVerified());
+        verify(repository, times(2)).findById(user.getId());
+        verify(kafkaTemplate, timeout(1_000)).send(properties.getInvalidationTopic(), user.getId().toString(), user.getEmail());
+    }
+
+    @Test
+    void userChanged_swallowsPublishFailures_offTheCallingThread() {
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> publishedOn = new AtomicReference<>();
+        when(kafkaTemplate.send(properties.getInvalidationTopic(), user.getId().toString(), user.getEmail()))
+                .thenAnswer(invocation -> {
+                    publishedOn.set(Thread.currentThread());
+                    throw new KafkaException("Send failed: max.block.ms exceeded");
+                });
+
+        assertDoesNotThrow(() -> userCache.userChanged(user.getId(), user.getEmail()));
+
+        verify(kafkaTemplate, timeout(1_000)).send(properties.getInvalidationTopic(), user.getId().toString(), user.getEmail());
+        assertNotSame(caller, publishedOn.get());
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() ->
+                assertEquals(1.0, meterRegistry.get("user.cache.invalidation.failed").counter().count()));
+    }
+
+    @Test
+    void disabled_passesThroughToRepository() {
+        properties.setEnabled(false);
+        userCache = new UserCache(repository, kafkaTemplate, properties, new SimpleMeterRegistry());
+        when(repository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        userCache.findByEmail(user.getEmail());
+        userCache.findByEmail(user.getEmail());
+        userCache.userChanged(user.getId(), user.getEmail());
+
+        verify(repository, times(2)).findByEmail(user.getEmail());
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
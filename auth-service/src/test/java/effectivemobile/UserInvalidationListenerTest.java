@@ -0,0 +1,91 @@
+package effectivemobile;
+
+import effectivemobile.cache.UserCache;
+import effectivemobile.cache.UserInvalidationListener;
+import effectivemobile.config.UserCacheProperties;
+import effectivemobile.entity.User;
+import effectivemobile.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserInvalidationListenerTest {
+
+    private static final String TOPIC = "user-invalidations";
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserCache userCache;
+    private UserInvalidationListener listener;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        userCache = new UserCache(repository, kafkaTemplate, new UserCacheProperties(), meterRegistry);
+        listener = new UserInvalidationListener(userCache, meterRegistry);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("test@yandex.ru");
+    }
+
+    @AfterEach
+    void tearDown() {
+        userCache.shutdown();
+    }
+
+    @Test
+    void onInvalidation_evictsBothKeys_andRecordsLag() {
+        when(repository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(repository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        userCache.findById(user.getId());
+
+        listener.onInvalidation(record(user.getId().toString(), user.getEmail(), System.currentTimeMillis() - 250));
+        userCache.findById(user.getId());
+        listener.onInvalidation(record(user.getId().toString(), user.getEmail(), System.currentTimeMillis() - 250));
+        userCache.findByEmail(user.getEmail());
+
+        verify(repository, times(2)).findById(user.getId());
+        verify(repository).findByEmail(user.getEmail());
+        assertEquals(2, meterRegistry.get("user.cache.invalidation.lag").timer().count());
+        assertTrue(meterRegistry.get("user.cache.invalidation.lag").timer().totalTime(TimeUnit.MILLISECONDS) >= 500);
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void onInvalidation_evictsById_whenEmailIsMissing() {
+        when(repository.findById(user.getId())).thenReturn(Optional.of(user));
+        userCache.findById(user.getId());
+
+        listener.onInvalidation(record(user.getId().toString(), null, System.currentTimeMillis()));
+        userCache.findById(user.getId());
+
+        verify(repository, times(2)).findById(user.getId());
+    }
+
+    private static ConsumerRecord<String, String> record(String key, String value, long timestamp) {
+        return new ConsumerRecord<>(TOPIC, 0, 0, timestamp, TimestampType.CREATE_TIME, 0, 0, key, value,
+                new RecordHeaders(), Optional.empty());
+    }
+}
@@ -0,0 +1,69 @@
+package effectivemobile;
+
+import effectivemobile.config.VerificationProperties;
+import effectivemobile.entity.VerificationCode;
+import effectivemobile.util.VerificationCodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationCodeFactoryTest {
+
+    private final String email = "test@yandex.ru";
+
+    @Test
+    void create_returnsSixDigitCode_byDefault() {
+        VerificationCode code = factory(6, "0123456789").create(email);
+
+        assertEquals(email, code.getEmail());
+        assertFalse(code.isUsed());
+        assertNotNull(code.getExpiresAt());
+        assertTrue(code.getCode().matches("\\d{6}"), code.getCode());
+    }
+
+    @Test
+    void create_usesConfiguredLengthAndAlphabet() {
+        VerificationCodeFactory factory = factory(10, "ABCDEFGHJKMNPQRSTUVWXYZ23456789");
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(factory.create(email).getCode().matches("[ABCDEFGHJKMNPQRSTUVWXYZ2-9]{10}"));
+        }
+    }
+
+    @Test
+    void create_drawsEveryCharacterUniformly() {
+        VerificationCodeFactory factory = factory(16, "0123456789");
+        Map<Character, Integer> counts = new HashMap<>();
+
+        int samples = 10_000;
+        for (int i = 0; i < samples; i++) {
+            for (char c : factory.create(email).getCode().toCharArray()) {
+                counts.merge(c, 1, Integer::sum);
+            }
+        }
+
+        double expected = samples * 16 / 10.0;
+        assertEquals(10, counts.size());
+        counts.values().forEach(count -> assertEquals(expected, count, expected * 0.05));
+    }
+
+    @Test
+    void constructor_rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> factory(3, "0123456789"));
+        assertThrows(IllegalArgumentException.class, () -> factory(17, "0123456789"));
+        assertThrows(IllegalArgumentException.class, () -> factory(6, "0"));
+        assertThrows(IllegalArgumentException.class, () -> factory(6, "0112"));
+        assertThrows(IllegalArgumentException.class, () -> factory(6, "01-2"));
+    }
+
+    private VerificationCodeFactory factory(int length, String alphabet) {
+        VerificationProperties properties = new VerificationProperties();
+        properties.setTtlMinutes(5);
+        properties.setCodeLength(length);
+        properties.setCodeAlphabet(alphabet);
+        return new VerificationCodeFactory(properties);
+    }
+}
@@ -0,0 +1,80 @@
+package effectivemobile;
+
+import effectivemobile.config.VerificationProperties;
+import effectivemobile.maintenance.VerificationCodeMaintenance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationCodeMaintenanceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private VerificationCodeMaintenance maintenance;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.dataSource());
+
+        VerificationProperties properties = new VerificationProperties();
+        properties.getMaintenance().setPremakeDays(5);
+        properties.getMaintenance().setPurgeBatchSize(2);
+        properties.getMaintenance().setPurgePauseMs(0);
+        maintenance = new VerificationCodeMaintenance(jdbcTemplate, properties);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM verification_codes WHERE email LIKE '%@maintenance.test'");
+    }
+
+    @Test
+    void maintainPartitions_createsFuturePartitions() {
+        assertTrue(maintenance.isPartitioned());
+
+        maintenance.maintainPartitions();
+
+        LocalDate last = LocalDate.now(ZoneOffset.UTC).plusDays(5);
+        assertTrue(partitionExists("verification_codes_p" + DateTimeFormatter.BASIC_ISO_DATE.format(last)));
+    }
+
+    @Test
+    void maintainPartitions_dropsExpiredPartitions() {
+        jdbcTemplate.execute("CREATE TABLE verification_codes_p20000101 PARTITION OF verification_codes "
+                + "FOR VALUES FROM ('2000-01-01') TO ('2000-01-02')");
+
+        maintenance.maintainPartitions();
+
+        assertFalse(partitionExists("verification_codes_p20000101"));
+    }
+
+    @Test
+    void purgeExpired_deletesOnlyExpiredRows_inBatches() {
+        for (int i = 0; i < 5; i++) {
+            insert("expired" + i + "@maintenance.test", "now() - interval '1 day'");
+        }
+        insert("active@maintenance.test", "now() + interval '5 minutes'");
+
+        int purged = maintenance.purgeExpired("verification_codes_default");
+
+        assertEquals(5, purged);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM verification_codes WHERE email LIKE '%@maintenance.test'", Integer.class));
+    }
+
+    private void insert(String email, String expiresAt) {
+        jdbcTemplate.update("INSERT INTO verification_codes (id, email, code, expires_at, used, created_at) "
+                + "VALUES (gen_random_uuid(), ?, '123456', " + expiresAt + ", false, '2001-01-01')", email);
+    }
+
+    private boolean partitionExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_class WHERE relname = ?)", Boolean.class, name));
+    }
+}
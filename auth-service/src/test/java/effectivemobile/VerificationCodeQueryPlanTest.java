@@ -0,0 +1,109 @@
+package effectivemobile;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import effectivemobile.repository.VerificationCodeRepositoryCustomImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plans are taken for the SQL the repository really issues, through the template it runs on
+class VerificationCodeQueryPlanTest {
+
+    private static final int ROWS = 200_000;
+    private static final long LARGE_RELATION_TUPLES = 1_000;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static JdbcTemplate jdbcTemplate;
+    private static ExplainingTemplate redeemTemplate;
+    private static VerificationCodeRepositoryCustomImpl repository;
+
+    @BeforeAll
+    static void fillTable() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.dataSource());
+        jdbcTemplate.update("""
+                INSERT INTO verification_codes (id, email, code, expires_at, used, created_at)
+                SELECT gen_random_uuid(),
+                       'user' || (g % 20000) || '@plan.test',
+                       lpad(((g * 7919) % 1000000)::text, 6, '0'),
+                       now() + interval '5 minutes',
+                       g % 4 <> 0,
+                       now() - g * interval '1 second'
+                FROM generate_series(1, ?) AS g
+                """, ROWS);
+        jdbcTemplate.execute("ANALYZE verification_codes");
+
+        redeemTemplate = new ExplainingTemplate();
+        repository = new VerificationCodeRepositoryCustomImpl(redeemTemplate);
+    }
+
+    @AfterAll
+    static void cleanup() {
+        jdbcTemplate.update("DELETE FROM verification_codes WHERE email LIKE '%@plan.test'");
+    }
+
+    @Test
+    void redeem_usesIndex() throws Exception {
+        redeemTemplate.plans.clear();
+
+        repository.redeem("user42@plan.test", "332598", Instant.now());
+
+        assertEquals(1, redeemTemplate.plans.size());
+        assertIndexScan(redeemTemplate.plans.get(0));
+    }
+
+    private void assertIndexScan(String plan) throws Exception {
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(mapper.readTree(plan).get(0).get("Plan"), nodes);
+
+        for (JsonNode node : nodes) {
+            if ("Seq Scan".equals(node.path("Node Type").asText())) {
+                String relation = node.path("Relation Name").asText();
+                assertTrue(tuples(relation) < LARGE_RELATION_TUPLES,
+                        "Sequential scan on " + relation + ":\n" + plan);
+            }
+        }
+        assertTrue(nodes.stream().anyMatch(node -> node.path("Node Type").asText().contains("Index")),
+                "No index scan in plan:\n" + plan);
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, nodes);
+        }
+    }
+
+    private static long tuples(String relation) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE relname = ?", Long.class, relation);
+        return count == null ? 0 : count;
+    }
+
+    // Plans each statement with the parameters it is about to run with, then runs it
+    private static class ExplainingTemplate extends NamedParameterJdbcTemplate {
+
+        private final List<String> plans = new CopyOnWriteArrayList<>();
+
+        private ExplainingTemplate() {
+            super(TestDatabase.dataSource());
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+            plans.add(queryForList("EXPLAIN (FORMAT JSON) " + sql, paramSource, String.class).get(0));
+            return super.queryForObject(sql, paramSource, rowMapper);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package effectivemobile;
+
+import effectivemobile.repository.CodeRedemption;
+import effectivemobile.repository.VerificationCodeRepositoryCustomImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationCodeRedemptionTest {
+
+    private final String email = "redeem@redemption.test";
+    private final String code = "123456";
+
+    private JdbcTemplate jdbcTemplate;
+    private VerificationCodeRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate = new JdbcTemplate(TestDatabase.dataSource());
+        repository = new VerificationCodeRepositoryCustomImpl(new NamedParameterJdbcTemplate(jdbcTemplate));
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM verification_codes WHERE email LIKE '%@redemption.test'");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%@redemption.test'");
+    }
+
+    @Test
+    void redeem_marksCodeUsedAndUserVerified() {
+        UUID userId = insertUser(email);
+        insertCode(email, "now() + interval '5 minutes'");
+
+        CodeRedemption redemption = repository.redeem(email, code, Instant.now());
+
+        assertEquals(CodeRedemption.Status.REDEEMED, redemption.status());
+        assertEquals(userId, redemption.userId());
+        assertTrue(jdbcTemplate.queryForObject("SELECT verified FROM users WHERE id = ?", Boolean.class, userId));
+        assertEquals(CodeRedemption.Status.INVALID, repository.redeem(email, code, Instant.now()).status());
+    }
+
+    @Test
+    void redeem_reportsExpired_withoutConsuming() {
+        insertUser(email);
+        insertCode(email, "now() - interval '1 minute'");
+
+        assertEquals(CodeRedemption.Status.EXPIRED, repository.redeem(email, code, Instant.now()).status());
+        assertEquals(CodeRedemption.Status.EXPIRED, repository.redeem(email, code, Instant.now()).status());
+    }
+
+    @Test
+    void redeem_reportsMissingUser() {
+        insertCode(email, "now() + interval '5 minutes'");
+
+        assertEquals(CodeRedemption.Status.USER_NOT_FOUND, repository.redeem(email, code, Instant.now()).status());
+    }
+
+    @Test
+    void redeem_succeedsOnlyOnce_underConcurrency() throws Exception {
+        insertUser(email);
+        insertCode(email, "now() + interval '5 minutes'");
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CodeRedemption>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return repository.redeem(email, code, Instant.now());
+            }));
+        }
+        start.countDown();
+
+        int redeemed = 0;
+        for (Future<CodeRedemption> result : results) {
+            if (result.get().status() == CodeRedemption.Status.REDEEMED) {
+                redeemed++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, redeemed);
+    }
+
+    private UUID insertUser(String email) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, verified, created_at, updated_at) "
+                + "VALUES (?, ?, false, now(), now())", id, email);
+        return id;
+    }
+
+    private void insertCode(String email, String expiresAt) {
+        jdbcTemplate.update("INSERT INTO verification_codes (id, email, code, expires_at, used, created_at) "
+                + "VALUES (gen_random_uuid(), ?, ?, " + expiresAt + ", false, now())", email, code);
+    }
+}
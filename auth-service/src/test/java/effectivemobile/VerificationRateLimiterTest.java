@@ -0,0 +1,96 @@
+package effectivemobile;
+
+import effectivemobile.config.VerificationProperties;
+import effectivemobile.exception.TooManyRequestsException;
+import effectivemobile.ratelimit.InMemoryRateLimitStore;
+import effectivemobile.util.VerificationRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationRateLimiterTest {
+
+    private final String email = "test@yandex.ru";
+
+    @Test
+    void checkRateLimit_rejectsSecondRequest_withinInterval() {
+        VerificationRateLimiter limiter = limiter(30, 1);
+
+        limiter.checkRateLimit(email);
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> limiter.checkRateLimit(email));
+        assertEquals("Wait 30 seconds", ex.getMessage());
+    }
+
+    @Test
+    void checkRateLimit_allowsBurst_thenRejects() {
+        VerificationRateLimiter limiter = limiter(30, 3);
+
+        limiter.checkRateLimit(email);
+        limiter.checkRateLimit(email);
+        limiter.checkRateLimit(email);
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.checkRateLimit(email));
+    }
+
+    @Test
+    void checkRateLimit_keepsBucketsPerEmail() {
+        VerificationRateLimiter limiter = limiter(30, 1);
+
+        limiter.checkRateLimit(email);
+
+        assertDoesNotThrow(() -> limiter.checkRateLimit("other@yandex.ru"));
+    }
+
+    @Test
+    void checkRateLimits_reportsOnlyLimitedEmails_andSharesBucketsWithCheckRateLimit() {
+        VerificationRateLimiter limiter = limiter(30, 1);
+
+        limiter.checkRateLimit(email);
+
+        assertEquals(Map.of(email, "Wait 30 seconds"), limiter.checkRateLimits(List.of(email, "other@yandex.ru")));
+        assertThrows(TooManyRequestsException.class, () -> limiter.checkRateLimit("other@yandex.ru"));
+    }
+
+    @Test
+    void checkBulkRateLimit_chargesOneTokenPerEmail() {
+        VerificationRateLimiter limiter = limiter(30, 1);
+
+        limiter.checkBulkRateLimit("crm", 600);
+        limiter.checkBulkRateLimit("crm", 400);
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> limiter.checkBulkRateLimit("crm", 1));
+        assertEquals("Wait 1 seconds", ex.getMessage());
+        assertDoesNotThrow(() -> limiter.checkBulkRateLimit("other", 1000));
+    }
+
+    @Test
+    void checkBulkRateLimit_isSeparateFromPerEmailBuckets() {
+        VerificationRateLimiter limiter = limiter(30, 1);
+
+        limiter.checkBulkRateLimit(email, 1000);
+
+        assertDoesNotThrow(() -> limiter.checkRateLimit(email));
+    }
+
+    @Test
+    void checkBulkRateLimit_rejectsRequestLargerThanBurst() {
+        VerificationRateLimiter limiter = limiter(30, 1);
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> limiter.checkBulkRateLimit("crm", 1001));
+        assertEquals("At most 1000 emails per request", ex.getMessage());
+    }
+
+    private VerificationRateLimiter limiter(int seconds, int burst) {
+        VerificationProperties properties = new VerificationProperties();
+        properties.setRateLimitSeconds(seconds);
+        properties.setRateLimitBurst(burst);
+        return new VerificationRateLimiter(new InMemoryRateLimitStore(properties), properties);
+    }
+}
@@ -0,0 +1,23 @@
+package effectivemobile.nativekafka;
+
+import java.time.Duration;
+
+/**
+ * @param queueCapacity   records buffered per partition before the partition is paused
+ * @param maxPollRecords  must match {@code max.poll.records}, one poll may overshoot the capacity by that much
+ * @param pollTimeout     consumer poll timeout
+ * @param commitInterval  how often processed offsets are committed asynchronously
+ * @param shutdownTimeout how long a worker may take to finish its current record on revoke or shutdown
+ */
+public record EngineSettings(
+        int queueCapacity,
+        int maxPollRecords,
+        Duration pollTimeout,
+        Duration commitInterval,
+        Duration shutdownTimeout
+) {
+
+    public static EngineSettings defaults() {
+        return new EngineSettings(1_000, 500, Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(10));
+    }
+}
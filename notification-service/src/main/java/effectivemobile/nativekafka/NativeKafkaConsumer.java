@@ -1,44 +1,42 @@
 package effectivemobile.nativekafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import effectivemobile.notification.VerificationMessage;
-import lombok.SneakyThrows;
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.message.VerificationMessageDeserializer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 
-import java.time.Duration;
-import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 @Slf4j
 public class NativeKafkaConsumer {
 
-    private static final ObjectMapper mapper = new ObjectMapper();
-
-    @SneakyThrows
     public static void main(String[] args) {
+        EngineSettings settings = EngineSettings.defaults();
+
         Properties properties = new Properties();
-        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, env("KAFKA_BOOTSTRAP_SERVERS", "localhost:9092"));
         properties.put(ConsumerConfig.GROUP_ID_CONFIG, "native-consumer");
-        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, VerificationMessageDeserializer.class.getName());
         properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, settings.maxPollRecords());
 
-        KafkaConsumer<String, String> consumer = new KafkaConsumer<>(properties);
-        consumer.subscribe(Collections.singletonList("verification-codes"));
+        PartitionedConsumerEngine<String, VerificationMessage> engine = new PartitionedConsumerEngine<>(
+                new KafkaConsumer<>(properties),
+                List.of(env("KAFKA_TOPIC", "verification-codes")),
+                record -> log.info("Native kafka email={}, code={}", record.value().email(), record.value().code()),
+                settings);
 
-        log.info("Native kafka consumer started");
-
-        while (true) {
-            ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(500));
-            for (ConsumerRecord<String, String> record : records) {
-                VerificationMessage msg = mapper.readValue(record.value(), VerificationMessage.class);
-                log.info("Native kafka email={}, code={}", msg.email(), msg.code());
-            }
-        }
+        Runtime.getRuntime().addShutdownHook(new Thread(engine::close, "native-consumer-shutdown"));
+        engine.run();
+    }
 
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
     }
 }
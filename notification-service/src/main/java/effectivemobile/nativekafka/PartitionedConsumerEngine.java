@@ -0,0 +1,275 @@
+package effectivemobile.nativekafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls on the calling thread and hands every assigned partition to its own virtual-thread worker, so records
+ * of one partition (one email, since messages are keyed by email) stay ordered while partitions run in parallel.
+ * A partition is paused while its queue is full and resumed once it drains to half. Offsets are committed only
+ * up to the last record a worker finished. Everything that touches the {@link Consumer} runs on the poll thread.
+ */
+@Slf4j
+public class PartitionedConsumerEngine<K, V> implements AutoCloseable {
+
+    private final Consumer<K, V> consumer;
+    private final Collection<String> topics;
+    private final RecordHandler<K, V> handler;
+    private final EngineSettings settings;
+
+    private final Map<TopicPartition, PartitionWorker> workers = new HashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    public PartitionedConsumerEngine(Consumer<K, V> consumer,
+                                     Collection<String> topics,
+                                     RecordHandler<K, V> handler,
+                                     EngineSettings settings) {
+        this.consumer = consumer;
+        this.topics = topics;
+        this.handler = handler;
+        this.settings = settings;
+    }
+
+    public void run() {
+        long nextCommit = System.nanoTime() + settings.commitInterval().toNanos();
+        try {
+            consumer.subscribe(topics, new RebalanceListener());
+            log.info("Consumer engine started, topics={}", topics);
+
+            while (running.get()) {
+                try {
+                    dispatch(consumer.poll(settings.pollTimeout()));
+                } catch (RecordDeserializationException e) {
+                    log.error("Skipping unreadable record partition={}, offset={}", e.topicPartition(), e.offset(), e);
+                    consumer.seek(e.topicPartition(), e.offset() + 1);
+                }
+                applyBackpressure();
+
+                if (System.nanoTime() - nextCommit >= 0) {
+                    commitProcessed(workers.keySet(), false);
+                    nextCommit = System.nanoTime() + settings.commitInterval().toNanos();
+                }
+            }
+        } catch (WakeupException e) {
+            if (running.get()) {
+                throw e;
+            }
+        } finally {
+            try {
+                stopWorkers(workers.keySet());
+                commitProcessed(workers.keySet(), true);
+            } finally {
+                workers.clear();
+                consumer.close();
+                executor.shutdown();
+                stopped.countDown();
+                log.info("Consumer engine stopped");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (running.compareAndSet(true, false)) {
+            consumer.wakeup();
+        }
+        try {
+            if (!stopped.await(settings.shutdownTimeout().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+                log.warn("Consumer engine did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(ConsumerRecords<K, V> records) {
+        for (TopicPartition partition : records.partitions()) {
+            PartitionWorker worker = workers.get(partition);
+            if (worker == null) {
+                continue;
+            }
+            for (ConsumerRecord<K, V> record : records.records(partition)) {
+                if (!worker.queue.offer(record)) {
+                    // Only possible if max.poll.records exceeds the configured overshoot: fetch the rest again later
+                    consumer.seek(partition, record.offset());
+                    consumer.pause(Set.of(partition));
+                    break;
+                }
+            }
+        }
+    }
+
+    private void applyBackpressure() {
+        Set<TopicPartition> paused = consumer.paused();
+        for (PartitionWorker worker : workers.values()) {
+            int size = worker.queue.size();
+            boolean isPaused = paused.contains(worker.partition);
+            if (!isPaused && size >= settings.queueCapacity()) {
+                consumer.pause(Set.of(worker.partition));
+            } else if (isPaused && size <= settings.queueCapacity() / 2) {
+                consumer.resume(Set.of(worker.partition));
+            }
+        }
+    }
+
+    // A worker's committed offset only moves once the broker has accepted it, so a failed commit is sent again
+    private void commitProcessed(Collection<TopicPartition> partitions, boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        Map<PartitionWorker, Long> pending = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionWorker worker = workers.get(partition);
+            if (worker == null) {
+                continue;
+            }
+            long processed = worker.processed.get();
+            if (processed > worker.committed) {
+                offsets.put(partition, new OffsetAndMetadata(processed + 1));
+                pending.put(worker, processed);
+            }
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+
+        if (sync) {
+            consumer.commitSync(offsets);
+            pending.forEach(PartitionWorker::markCommitted);
+        } else {
+            // The callback runs on the poll thread, inside a later poll or commit call
+            consumer.commitAsync(offsets, (committed, ex) -> {
+                if (ex != null) {
+                    log.warn("Offset commit failed, will be retried with the next one: {}", ex.getMessage());
+                } else {
+                    pending.forEach(PartitionWorker::markCommitted);
+                }
+            });
+        }
+    }
+
+    private void startWorkers(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionWorker worker = new PartitionWorker(partition);
+            worker.future = executor.submit(worker);
+            workers.put(partition, worker);
+        }
+        log.info("Started workers for partitions={}", partitions);
+    }
+
+    private void stopWorkers(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionWorker worker = workers.get(partition);
+            if (worker != null) {
+                worker.stopping = true;
+            }
+        }
+        for (TopicPartition partition : partitions) {
+            PartitionWorker worker = workers.get(partition);
+            if (worker != null) {
+                worker.await(settings.shutdownTimeout().toMillis());
+            }
+        }
+    }
+
+    private final class RebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            stopWorkers(partitions);
+            try {
+                commitProcessed(partitions, true);
+            } finally {
+                partitions.forEach(workers::remove);
+            }
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            startWorkers(partitions);
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            stopWorkers(partitions);
+            partitions.forEach(workers::remove);
+        }
+    }
+
+    private final class PartitionWorker implements Runnable {
+
+        private final TopicPartition partition;
+        private final BlockingQueue<ConsumerRecord<K, V>> queue;
+        private final AtomicLong processed = new AtomicLong(-1);
+        private long committed = -1;
+        private volatile boolean stopping;
+        private Future<?> future;
+
+        private PartitionWorker(TopicPartition partition) {
+            this.partition = partition;
+            this.queue = new ArrayBlockingQueue<>(settings.queueCapacity() + settings.maxPollRecords());
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopping) {
+                    ConsumerRecord<K, V> record = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (record == null) {
+                        continue;
+                    }
+                    try {
+                        handler.handle(record);
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        log.error("Failed to process record partition={}, offset={}", partition, record.offset(), e);
+                    }
+                    processed.set(record.offset());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void markCommitted(long offset) {
+            committed = Math.max(committed, offset);
+        }
+
+        private void await(long timeoutMs) {
+            try {
+                future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Worker for partition={} did not stop in time, interrupting", partition);
+                future.cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error("Worker for partition={} failed", partition, e.getCause());
+            }
+        }
+    }
+}
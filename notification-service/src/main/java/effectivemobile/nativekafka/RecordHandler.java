@@ -0,0 +1,9 @@
+package effectivemobile.nativekafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+@FunctionalInterface
+public interface RecordHandler<K, V> {
+
+    void handle(ConsumerRecord<K, V> record) throws Exception;
+}
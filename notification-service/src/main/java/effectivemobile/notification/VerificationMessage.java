@@ -1,7 +0,0 @@
-package effectivemobile.notification;
-
-public record VerificationMessage(
-        String email,
-        String code
-) {
-}
@@ -0,0 +1,34 @@
+package effectivemobile.springkafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+@Configuration
+@Slf4j
+public class KafkaConsumerConfig {
+
+    @Bean
+    public NewTopic verificationTopic(@Value("${kafka.topics.verification}") String topic,
+                                      @Value("${kafka.topics.verification-partitions}") int partitions,
+                                      @Value("${kafka.topics.verification-replicas}") short replicas) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(@Value("${kafka.listener.retry-interval-ms}") long retryIntervalMs,
+                                                 @Value("${kafka.listener.retry-attempts}") long retryAttempts) {
+        return new DefaultErrorHandler(
+                (record, ex) -> log.error("Giving up on verification message partition={}, offset={}",
+                        record.partition(), record.offset(), ex),
+                new FixedBackOff(retryIntervalMs, retryAttempts));
+    }
+}
@@ -1,16 +1,40 @@
 package effectivemobile.springkafka;
 
-import effectivemobile.notification.VerificationMessage;
+import effectivemobile.message.VerificationMessage;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class VerificationCodeListener {
 
-    @KafkaListener(topics = "${kafka.topics.verification}")
-    public void listen(VerificationMessage message) {
-        log.info("Received verification code: email={}, code={}", message.email(), message.code());
+    private final VerificationCodeSender sender;
+
+    @KafkaListener(topics = "${kafka.topics.verification}", batch = "true")
+    public void listen(List<ConsumerRecord<String, VerificationMessage>> records) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, VerificationMessage> record = records.get(i);
+            VerificationMessage message = record.value();
+            if (message == null) {
+                log.warn("Skipping unreadable verification message partition={}, offset={}",
+                        record.partition(), record.offset());
+                continue;
+            }
+
+            try {
+                sender.send(message);
+            } catch (RuntimeException e) {
+                // Records before i are committed, the failed one is retried and then recovered by the error handler
+                throw new BatchListenerFailedException("Failed to deliver verification code", e, i);
+            }
+        }
+        log.debug("Processed batch of {} verification messages", records.size());
     }
 }
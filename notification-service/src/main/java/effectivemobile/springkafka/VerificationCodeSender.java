@@ -0,0 +1,14 @@
+package effectivemobile.springkafka;
+
+import effectivemobile.message.VerificationMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class VerificationCodeSender {
+
+    public void send(VerificationMessage message) {
+        log.info("Received verification code: email={}, code={}", message.email(), message.code());
+    }
+}
@@ -0,0 +1,208 @@
+package effectivemobile;
+
+import effectivemobile.nativekafka.EngineSettings;
+import effectivemobile.nativekafka.PartitionedConsumerEngine;
+import effectivemobile.nativekafka.RecordHandler;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.consumer.RetriableCommitFailedException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedConsumerEngineTest {
+
+    private static final String TOPIC = "verification-codes";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+
+    private final TestConsumer consumer = new TestConsumer();
+    private PartitionedConsumerEngine<String, String> engine;
+    private Thread pollThread;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (engine != null) {
+            engine.close();
+            pollThread.join(5_000);
+        }
+    }
+
+    @Test
+    void handlesEachPartitionInOrder_andCommitsWhatWasProcessed() {
+        Map<Integer, List<Long>> handled = new ConcurrentHashMap<>();
+        start(settings(1_000, Duration.ofMillis(20)),
+                record -> handled.computeIfAbsent(record.partition(), p -> new CopyOnWriteArrayList<>()).add(record.offset()));
+        assign(Set.of(P0, P1));
+
+        addRecords(P0, 0, 50);
+        addRecords(P1, 0, 50);
+
+        List<Long> expected = LongStream.range(0, 50).boxed().toList();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertEquals(expected, handled.get(0));
+            assertEquals(expected, handled.get(1));
+        });
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertEquals(50, committedOffset(P0));
+            assertEquals(50, committedOffset(P1));
+        });
+    }
+
+    @Test
+    void pausesFullPartition_andResumesOnceDrained() {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger handled = new AtomicInteger();
+        start(settings(4, Duration.ofHours(1)), record -> {
+            release.await();
+            handled.incrementAndGet();
+        });
+        assign(Set.of(P0));
+
+        addRecords(P0, 0, 10);
+        await().atMost(Duration.ofSeconds(5)).until(() -> consumer.paused().contains(P0));
+
+        // Not handed out while the partition is paused
+        addRecords(P0, 10, 5);
+        release.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> handled.get() == 15);
+        assertFalse(consumer.paused().contains(P0));
+    }
+
+    @Test
+    void commitsProcessedOffsetsSynchronously_whenPartitionIsRevoked() {
+        AtomicInteger handled = new AtomicInteger();
+        start(settings(1_000, Duration.ofHours(1)), record -> handled.incrementAndGet());
+        assign(Set.of(P0, P1));
+
+        addRecords(P0, 0, 3);
+        await().atMost(Duration.ofSeconds(5)).until(() -> handled.get() == 3);
+        assertEquals(-1, committedOffset(P0));
+
+        assign(Set.of(P1));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> consumer.revoked.contains(P0));
+        assertEquals(3, committedOffset(P0));
+        assertEquals(1, consumer.syncCommits.get());
+    }
+
+    @Test
+    void retriesFailedAsyncCommit() {
+        consumer.failNextAsyncCommit = true;
+        AtomicInteger handled = new AtomicInteger();
+        start(settings(1_000, Duration.ofMillis(20)), record -> handled.incrementAndGet());
+        assign(Set.of(P0));
+
+        addRecords(P0, 0, 3);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertEquals(3, committedOffset(P0)));
+        assertTrue(consumer.asyncCommits.get() >= 2);
+    }
+
+    private void start(EngineSettings settings, RecordHandler<String, String> handler) {
+        engine = new PartitionedConsumerEngine<>(consumer, List.of(TOPIC), handler, settings);
+        pollThread = new Thread(engine::run, "engine-poll");
+        pollThread.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> consumer.listener != null);
+    }
+
+    private static EngineSettings settings(int queueCapacity, Duration commitInterval) {
+        return new EngineSettings(queueCapacity, 10, Duration.ofMillis(10), commitInterval, Duration.ofSeconds(1));
+    }
+
+    // Rebalances run inside poll on the engine's thread, as they do with a real consumer
+    private void assign(Set<TopicPartition> partitions) {
+        CountDownLatch done = new CountDownLatch(1);
+        consumer.schedulePollTask(() -> {
+            Set<TopicPartition> revoked = Set.copyOf(consumer.assignment());
+            if (!revoked.isEmpty()) {
+                consumer.listener.onPartitionsRevoked(revoked);
+            }
+            consumer.rebalance(partitions);
+            consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+            consumer.listener.onPartitionsAssigned(partitions);
+            done.countDown();
+        });
+        await().atMost(Duration.ofSeconds(5)).until(() -> done.getCount() == 0);
+    }
+
+    private void addRecords(TopicPartition partition, long from, int count) {
+        for (long offset = from; offset < from + count; offset++) {
+            consumer.addRecord(new ConsumerRecord<>(TOPIC, partition.partition(), offset, "key", "value-" + offset));
+        }
+    }
+
+    // MockConsumer reports 0 for partitions it no longer owns, so commits are tracked by the test consumer
+    private long committedOffset(TopicPartition partition) {
+        return consumer.committedOffsets.getOrDefault(partition, -1L);
+    }
+
+    private static class TestConsumer extends MockConsumer<String, String> {
+
+        private volatile ConsumerRebalanceListener listener;
+        private volatile boolean failNextAsyncCommit;
+        private final Set<TopicPartition> revoked = ConcurrentHashMap.newKeySet();
+        private final Map<TopicPartition, Long> committedOffsets = new ConcurrentHashMap<>();
+        private final AtomicInteger syncCommits = new AtomicInteger();
+        private final AtomicInteger asyncCommits = new AtomicInteger();
+
+        private TestConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public synchronized void subscribe(Collection<String> topics, ConsumerRebalanceListener listener) {
+            super.subscribe(topics, listener);
+            this.listener = new ConsumerRebalanceListener() {
+                @Override
+                public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                    listener.onPartitionsRevoked(partitions);
+                    revoked.addAll(partitions);
+                }
+
+                @Override
+                public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                    listener.onPartitionsAssigned(partitions);
+                }
+            };
+        }
+
+        @Override
+        public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+            syncCommits.incrementAndGet();
+            super.commitSync(offsets);
+            offsets.forEach((partition, offset) -> committedOffsets.put(partition, offset.offset()));
+        }
+
+        @Override
+        public synchronized void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets, OffsetCommitCallback callback) {
+            asyncCommits.incrementAndGet();
+            if (failNextAsyncCommit) {
+                failNextAsyncCommit = false;
+                callback.onComplete(offsets, new RetriableCommitFailedException("broker unavailable"));
+                return;
+            }
+            super.commitAsync(offsets, callback);
+            offsets.forEach((partition, offset) -> committedOffsets.put(partition, offset.offset()));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package effectivemobile;
+
+import effectivemobile.message.VerificationMessage;
+import effectivemobile.springkafka.KafkaConsumerConfig;
+import effectivemobile.springkafka.VerificationCodeListener;
+import effectivemobile.springkafka.VerificationCodeSender;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.support.TopicPartitionOffset;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// The listener runs in a real container on a MockConsumer, with the error handler the application configures
+class VerificationCodeListenerTest {
+
+    private static final String TOPIC = "verification-codes";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final VerificationCodeSender sender = mock(VerificationCodeSender.class);
+    private final VerificationCodeListener listener = new VerificationCodeListener(sender);
+    private final TestConsumer consumer = new TestConsumer();
+    private KafkaMessageListenerContainer<String, VerificationMessage> container;
+
+    @AfterEach
+    void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Test
+    void listen_reportsIndexOfFailedRecord_afterDeliveringEarlierOnes() {
+        doThrow(new IllegalStateException("smtp down")).when(sender).send(message(1));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.listen(List.of(record(0), record(1), record(2))));
+
+        assertEquals(1, e.getIndex());
+        verify(sender).send(message(0));
+        verify(sender, never()).send(message(2));
+    }
+
+    @Test
+    void failedRecord_isRetriedThenRecovered_withoutRedeliveringTheRestOfTheBatch() {
+        doThrow(new IllegalStateException("smtp down")).when(sender).send(message(1));
+        start(0, 2);
+
+        addRecords(record(0), record(1), record(2));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertEquals(3, committedOffset()));
+        verify(sender, times(1)).send(message(0));
+        verify(sender, times(3)).send(message(1));
+        verify(sender, times(1)).send(message(2));
+    }
+
+    @Test
+    void unreadableRecord_isSkipped_andCommitted() {
+        start(0, 2);
+
+        addRecords(record(0), new ConsumerRecord<>(TOPIC, 0, 1, "key", null), record(2));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertEquals(3, committedOffset()));
+        verify(sender).send(message(0));
+        verify(sender).send(message(2));
+        verifyNoMoreInteractions(sender);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start(long retryIntervalMs, long retryAttempts) {
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        ConsumerFactory<String, VerificationMessage> consumerFactory = mock(ConsumerFactory.class);
+        when(consumerFactory.createConsumer(anyString(), any(), any(), any())).thenReturn(consumer);
+
+        ContainerProperties properties = new ContainerProperties(new TopicPartitionOffset(TOPIC, 0));
+        properties.setGroupId("notification-service");
+        properties.setAckMode(ContainerProperties.AckMode.BATCH);
+        properties.setPollTimeout(10);
+        properties.setMessageListener((BatchMessageListener<String, VerificationMessage>) listener::listen);
+
+        container = new KafkaMessageListenerContainer<>(consumerFactory, properties);
+        container.setCommonErrorHandler(new KafkaConsumerConfig().kafkaErrorHandler(retryIntervalMs, retryAttempts));
+        container.start();
+    }
+
+    // Records are added on the consumer's own thread once the container has assigned the partition
+    @SafeVarargs
+    private void addRecords(ConsumerRecord<String, VerificationMessage>... records) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> container.getAssignedPartitions().contains(PARTITION));
+        List<ConsumerRecord<String, VerificationMessage>> batch = new ArrayList<>(List.of(records));
+        consumer.schedulePollTask(() -> batch.forEach(consumer::append));
+    }
+
+    private long committedOffset() {
+        OffsetAndMetadata committed = consumer.committed(Set.of(PARTITION)).get(PARTITION);
+        return committed == null ? -1 : committed.offset();
+    }
+
+    private static ConsumerRecord<String, VerificationMessage> record(int offset) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, "key", message(offset));
+    }
+
+    private static VerificationMessage message(int index) {
+        return new VerificationMessage("user" + index + "@example.com", "12345" + index);
+    }
+
+    // MockConsumer forgets records once polled; this one keeps a log so the error handler's seeks redeliver them
+    private static class TestConsumer extends MockConsumer<String, VerificationMessage> {
+
+        private final List<ConsumerRecord<String, VerificationMessage>> log = new ArrayList<>();
+
+        private TestConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        private synchronized void append(ConsumerRecord<String, VerificationMessage> record) {
+            log.add(record);
+            addRecord(record);
+        }
+
+        @Override
+        public synchronized void seek(TopicPartition partition, long offset) {
+            super.seek(partition, offset);
+            log.stream()
+                    .filter(record -> record.partition() == partition.partition() && record.offset() >= offset)
+                    .forEach(this::addRecord);
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package effectivemobile.dto;
+package effectivemobile.message;
 
 public record VerificationMessage(
         String email,
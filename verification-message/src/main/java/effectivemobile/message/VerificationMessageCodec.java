@@ -0,0 +1,91 @@
+package effectivemobile.message;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout, version 1:
+ * <pre>
+ * version:u8 | email length:u16 | email:utf-8 | code length:u8 | code:utf-8
+ * </pre>
+ * Encoding sizes the record up front and writes ASCII strings straight into the one output array.
+ */
+public final class VerificationMessageCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int MAX_EMAIL_BYTES = 0xFFFF;
+    private static final int MAX_CODE_BYTES = 0xFF;
+
+    private VerificationMessageCodec() {
+    }
+
+    public static byte[] encode(VerificationMessage message) {
+        String email = message.email();
+        String code = message.code();
+        byte[] emailBytes = isAscii(email) ? null : email.getBytes(StandardCharsets.UTF_8);
+        byte[] codeBytes = isAscii(code) ? null : code.getBytes(StandardCharsets.UTF_8);
+        int emailLength = emailBytes == null ? email.length() : emailBytes.length;
+        int codeLength = codeBytes == null ? code.length() : codeBytes.length;
+
+        if (emailLength > MAX_EMAIL_BYTES || codeLength > MAX_CODE_BYTES) {
+            throw new SerializationException("Verification message is too large to encode");
+        }
+
+        byte[] out = new byte[1 + 2 + emailLength + 1 + codeLength];
+        int pos = 0;
+        out[pos++] = VERSION;
+        out[pos++] = (byte) (emailLength >>> 8);
+        out[pos++] = (byte) emailLength;
+        pos = write(out, pos, email, emailBytes);
+        out[pos++] = (byte) codeLength;
+        write(out, pos, code, codeBytes);
+        return out;
+    }
+
+    public static VerificationMessage decode(byte[] data) {
+        if (data.length < 4) {
+            throw new SerializationException("Verification message is truncated");
+        }
+        if (data[0] != VERSION) {
+            throw new SerializationException("Unsupported verification message version " + data[0]);
+        }
+
+        int pos = 1;
+        int emailLength = ((data[pos++] & 0xFF) << 8) | (data[pos++] & 0xFF);
+        if (pos + emailLength + 1 > data.length) {
+            throw new SerializationException("Verification message is truncated");
+        }
+        String email = new String(data, pos, emailLength, StandardCharsets.UTF_8);
+        pos += emailLength;
+
+        int codeLength = data[pos++] & 0xFF;
+        if (pos + codeLength != data.length) {
+            throw new SerializationException("Verification message has an invalid length");
+        }
+        String code = new String(data, pos, codeLength, StandardCharsets.UTF_8);
+
+        return new VerificationMessage(email, code);
+    }
+
+    private static int write(byte[] out, int pos, String value, byte[] encoded) {
+        if (encoded != null) {
+            System.arraycopy(encoded, 0, out, pos, encoded.length);
+            return pos + encoded.length;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            out[pos++] = (byte) value.charAt(i);
+        }
+        return pos;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package effectivemobile.message;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads the binary codec. For one release it also reads the JSON values ({@code {"email":...,"code":...}})
+ * the previous producers wrote, so records still in the topic at deploy time are delivered rather than
+ * dropped. A binary record starts with its version byte and never with {@code '{'}, which tells the two apart.
+ * Remove the JSON path once no producer older than the binary codec is left and its records are consumed.
+ */
+public class VerificationMessageDeserializer implements Deserializer<VerificationMessage> {
+
+    private static final ObjectMapper LEGACY_JSON = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Override
+    public VerificationMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length > 0 && data[0] == '{') {
+            return decodeJson(data);
+        }
+        return VerificationMessageCodec.decode(data);
+    }
+
+    private static VerificationMessage decodeJson(byte[] data) {
+        try {
+            VerificationMessage message = LEGACY_JSON.readValue(data, VerificationMessage.class);
+            if (message.email() == null || message.code() == null) {
+                throw new SerializationException("JSON verification message is missing email or code");
+            }
+            return message;
+        } catch (IOException e) {
+            throw new SerializationException("Unreadable JSON verification message", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package effectivemobile.message;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+public class VerificationMessageSerializer implements Serializer<VerificationMessage> {
+
+    @Override
+    public byte[] serialize(String topic, VerificationMessage message) {
+        return message == null ? null : VerificationMessageCodec.encode(message);
+    }
+}
@@ -0,0 +1,41 @@
+package effectivemobile.message;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationMessageCodecTest {
+
+    @Test
+    void decode_returnsEncodedMessage() {
+        VerificationMessage message = new VerificationMessage("test@yandex.ru", "123456");
+
+        byte[] encoded = VerificationMessageCodec.encode(message);
+
+        assertEquals(1 + 2 + 14 + 1 + 6, encoded.length);
+        assertEquals(message, VerificationMessageCodec.decode(encoded));
+    }
+
+    @Test
+    void decode_handlesNonAsciiEmail() {
+        VerificationMessage message = new VerificationMessage("тест@почта.рф", "654321");
+
+        assertEquals(message, VerificationMessageCodec.decode(VerificationMessageCodec.encode(message)));
+    }
+
+    @Test
+    void decode_rejectsUnknownVersion() {
+        byte[] json = "{\"email\":\"test@yandex.ru\",\"code\":\"123456\"}".getBytes();
+
+        assertThrows(SerializationException.class, () -> VerificationMessageCodec.decode(json));
+    }
+
+    @Test
+    void decode_rejectsTruncatedMessage() {
+        byte[] encoded = VerificationMessageCodec.encode(new VerificationMessage("test@yandex.ru", "123456"));
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 2);
+
+        assertThrows(SerializationException.class, () -> VerificationMessageCodec.decode(truncated));
+    }
+}
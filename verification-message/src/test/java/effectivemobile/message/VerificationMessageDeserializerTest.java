@@ -0,0 +1,40 @@
+package effectivemobile.message;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationMessageDeserializerTest {
+
+    private final VerificationMessageDeserializer deserializer = new VerificationMessageDeserializer();
+    private final VerificationMessage message = new VerificationMessage("test@yandex.ru", "123456");
+
+    @Test
+    void deserialize_readsBinaryRecords() {
+        assertEquals(message, deserializer.deserialize("verification-codes", VerificationMessageCodec.encode(message)));
+    }
+
+    @Test
+    void deserialize_readsJsonRecordsFromThePreviousRelease() {
+        byte[] json = "{\"email\":\"test@yandex.ru\",\"code\":\"123456\",\"sentAt\":1}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(message, deserializer.deserialize("verification-codes", json));
+    }
+
+    @Test
+    void deserialize_rejectsBrokenOrIncompleteJson() {
+        byte[] broken = "{\"email\":\"test@yandex.ru\",".getBytes(StandardCharsets.UTF_8);
+        byte[] incomplete = "{\"email\":\"test@yandex.ru\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("verification-codes", broken));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("verification-codes", incomplete));
+    }
+
+    @Test
+    void deserialize_passesTombstonesThrough() {
+        assertNull(deserializer.deserialize("verification-codes", null));
+    }
+}